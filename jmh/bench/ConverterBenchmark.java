@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The six conversions, by expression size, nesting depth and grammar. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    // parenthesis nesting, independent of size (0 = flat). The defaults fit every
+    // size; deeper runs pick a size that fits, e.g. -p size=100000 -p depth=10,10000
+    @Param({"0", "10", "20"})
+    public int depth;
+
+    @Param({"conventional", "custom-small", "custom-large"})
+    public String mode;
+
+    private Object converter;
+    private String infix;
+    private String postfix;
+    private String prefix;
+
+    @Setup
+    public void setUp() throws Throwable {
+        converter = Expressions.converter(mode);
+        infix = Expressions.infix(size, depth, mode);
+        postfix = (String) Core.INFIX_TO_POSTFIX.invokeExact(converter, infix);
+        prefix = (String) Core.INFIX_TO_PREFIX.invokeExact(converter, infix);
+    }
+
+    @Benchmark
+    public String infixToPostfix() throws Throwable {
+        return (String) Core.INFIX_TO_POSTFIX.invokeExact(converter, infix);
+    }
+
+    @Benchmark
+    public String infixToPrefix() throws Throwable {
+        return (String) Core.INFIX_TO_PREFIX.invokeExact(converter, infix);
+    }
+
+    @Benchmark
+    public String postfixToInfix() throws Throwable {
+        return (String) Core.POSTFIX_TO_INFIX.invokeExact(converter, postfix);
+    }
+
+    @Benchmark
+    public String postfixToPrefix() throws Throwable {
+        return (String) Core.POSTFIX_TO_PREFIX.invokeExact(converter, postfix);
+    }
+
+    @Benchmark
+    public String prefixToInfix() throws Throwable {
+        return (String) Core.PREFIX_TO_INFIX.invokeExact(converter, prefix);
+    }
+
+    @Benchmark
+    public String prefixToPostfix() throws Throwable {
+        return (String) Core.PREFIX_TO_POSTFIX.invokeExact(converter, prefix);
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The project classes live in the default package, which JMH cannot generate
+ * benchmarks for and which a named package cannot import. They are reached
+ * through constant MethodHandles instead; the JIT inlines these, so the
+ * measured cost is the same as a direct call.
+ */
+final class Core {
+    static final MethodHandle NEW_CONVERTER;
+    static final MethodHandle SET_CUSTOM;
+    static final MethodHandle INFIX_TO_POSTFIX;
+    static final MethodHandle INFIX_TO_PREFIX;
+    static final MethodHandle POSTFIX_TO_INFIX;
+    static final MethodHandle POSTFIX_TO_PREFIX;
+    static final MethodHandle PREFIX_TO_INFIX;
+    static final MethodHandle PREFIX_TO_POSTFIX;
+    static final MethodHandle EVALUATE_POSTFIX;
+    static final MethodHandle EVALUATE_INFIX;
+
+    static final MethodHandle NEW_STACK;
+    static final MethodHandle STACK_PUSH;
+    static final MethodHandle STACK_POP;
+    static final MethodHandle NEW_QUEUE;
+    static final MethodHandle QUEUE_ENQUEUE;
+    static final MethodHandle QUEUE_DEQUEUE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> converter = Class.forName("Converter");
+            NEW_CONVERTER = lookup.findConstructor(converter, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            SET_CUSTOM = virtual(lookup, converter, "setCustom", void.class, String[].class, String[].class, int[].class);
+            INFIX_TO_POSTFIX = virtual(lookup, converter, "infixToPostfix", String.class, String.class);
+            INFIX_TO_PREFIX = virtual(lookup, converter, "infixToPrefix", String.class, String.class);
+            POSTFIX_TO_INFIX = virtual(lookup, converter, "postfixToInfix", String.class, String.class);
+            POSTFIX_TO_PREFIX = virtual(lookup, converter, "postfixToPrefix", String.class, String.class);
+            PREFIX_TO_INFIX = virtual(lookup, converter, "prefixToInfix", String.class, String.class);
+            PREFIX_TO_POSTFIX = virtual(lookup, converter, "prefixToPostfix", String.class, String.class);
+            EVALUATE_POSTFIX = virtual(lookup, converter, "evaluatePostfix", double.class, String.class);
+            EVALUATE_INFIX = virtual(lookup, converter, "evaluateInfix", double.class, String.class);
+
+            Class<?> stack = Class.forName("Stack");
+            NEW_STACK = lookup.findConstructor(stack, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            STACK_PUSH = virtual(lookup, stack, "push", void.class, Object.class);
+            STACK_POP = virtual(lookup, stack, "pop", Object.class);
+
+            Class<?> queue = Class.forName("Queue");
+            NEW_QUEUE = lookup.findConstructor(queue, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            QUEUE_ENQUEUE = virtual(lookup, queue, "enqueue", void.class, Object.class);
+            QUEUE_DEQUEUE = virtual(lookup, queue, "dequeue", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Core() {
+    }
+
+    // receiver typed as Object so callers can use invokeExact without naming the class
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                        Class<?> returnType, Class<?>... parameters) throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(owner, name, MethodType.methodType(returnType, parameters));
+        return handle.asType(handle.type().changeParameterType(0, Object.class));
+    }
+}
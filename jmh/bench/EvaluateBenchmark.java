@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * evaluatePostfix, and infix evaluation with and without the intermediate
+ * postfix string; evaluation exists only in conventional mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluateBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    // as in ConverterBenchmark
+    @Param({"0", "10", "20"})
+    public int depth;
+
+    private Object converter;
+    private String infix;
+    private String postfix;
+
+    @Setup
+    public void setUp() throws Throwable {
+        converter = Expressions.converter("conventional");
+        infix = Expressions.infix(size, depth, "conventional");
+        postfix = (String) Core.INFIX_TO_POSTFIX.invokeExact(converter, infix);
+    }
+
+    @Benchmark
+    public double evaluatePostfix() throws Throwable {
+        return (double) Core.EVALUATE_POSTFIX.invokeExact(converter, postfix);
+    }
+
+    @Benchmark
+    public double infixThroughPostfix() throws Throwable {
+        String converted = (String) Core.INFIX_TO_POSTFIX.invokeExact(converter, infix);
+        return (double) Core.EVALUATE_POSTFIX.invokeExact(converter, converted);
+    }
+
+    @Benchmark
+    public double evaluateInfix() throws Throwable {
+        return (double) Core.EVALUATE_INFIX.invokeExact(converter, infix);
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.SplittableRandom;
+
+/** Deterministic expression generators shared by the benchmarks. */
+final class Expressions {
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "^"};
+    private static final int[] PRIORITIES = {1, 1, 2, 2, 3};
+
+    private Expressions() {
+    }
+
+    /** Operand names for custom mode: v0, v1, ... */
+    static String[] vocabulary(int size) {
+        String[] operands = new String[size];
+        for (int i = 0; i < size; i++) operands[i] = "v" + i;
+        return operands;
+    }
+
+    static Object converter(String mode) throws Throwable {
+        Object converter = (Object) Core.NEW_CONVERTER.invokeExact();
+        switch (mode) {
+            case "conventional":
+                break;
+            case "custom-small":
+                Core.SET_CUSTOM.invokeExact(converter, vocabulary(100), OPERATORS.clone(), PRIORITIES.clone());
+                break;
+            case "custom-large":
+                Core.SET_CUSTOM.invokeExact(converter, vocabulary(500_000), OPERATORS.clone(), PRIORITIES.clone());
+                break;
+            default:
+                throw new IllegalArgumentException(mode);
+        }
+        return converter;
+    }
+
+    /**
+     * An infix expression with roughly {@code tokens} tokens whose parentheses
+     * nest {@code depth} levels deep, so size and depth can be varied separately.
+     * The first {@code depth} operations are each wrapped in one more level and
+     * the rest follow flat. Every level needs an operation, so depth can be at
+     * most (tokens - 1) / 4; a deeper request is rejected rather than lowered,
+     * so a result is never labelled with a depth it did not measure.
+     * Operands are small integers in conventional mode and vocabulary words
+     * otherwise, and no divisor is zero.
+     */
+    static String infix(int tokens, int depth, String mode) {
+        SplittableRandom random = new SplittableRandom(42);
+        int vocabulary = mode.equals("custom-large") ? 500_000 : 100;
+        boolean numeric = mode.equals("conventional");
+        // operand + (operator operand) * operations + "( )" * depth
+        if (depth < 0 || depth > (tokens - 1) / 4) {
+            throw new IllegalArgumentException("depth " + depth + " does not fit in " + tokens + " tokens");
+        }
+        int operations = Math.max(1, (tokens - 1 - 2 * depth) / 2);
+
+        StringBuilder out = new StringBuilder(tokens * 4);
+        for (int i = 0; i < depth; i++) out.append("( ");
+        out.append(operand(random, numeric, vocabulary));
+        for (int i = 0; i < operations; i++) {
+            // ^ is left out so long chains do not overflow in evaluatePostfix
+            String op = OPERATORS[random.nextInt(OPERATORS.length - 1)];
+            out.append(' ').append(op).append(' ').append(operand(random, numeric, vocabulary));
+            if (i < depth) out.append(" )");
+        }
+        return out.toString();
+    }
+
+    private static String operand(SplittableRandom random, boolean numeric, int vocabulary) {
+        return numeric ? Integer.toString(1 + random.nextInt(99)) : "v" + random.nextInt(vocabulary);
+    }
+}
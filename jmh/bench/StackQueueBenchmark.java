@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Push/pop and enqueue/dequeue throughput. Each invocation moves 100k elements
+ * through a fresh structure in fill-then-drain rounds of {@code depth}, so
+ * growth and shrinking are part of the measurement; scores are per element.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackQueueBenchmark {
+    private static final Object ITEM = "x";
+    private static final int DEPTH = 100_000;
+
+    @Param({"100", "1000", "100000"})
+    public int depth;
+
+    @Benchmark
+    @OperationsPerInvocation(DEPTH)
+    public void stackPushPop(Blackhole blackhole) throws Throwable {
+        Object stack = (Object) Core.NEW_STACK.invokeExact(100);
+        for (int done = 0; done < DEPTH; done += depth) {
+            for (int i = 0; i < depth; i++) Core.STACK_PUSH.invokeExact(stack, ITEM);
+            for (int i = 0; i < depth; i++) blackhole.consume((Object) Core.STACK_POP.invokeExact(stack));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEPTH)
+    public void queueEnqueueDequeue(Blackhole blackhole) throws Throwable {
+        Object queue = (Object) Core.NEW_QUEUE.invokeExact(100);
+        for (int done = 0; done < DEPTH; done += depth) {
+            for (int i = 0; i < depth; i++) Core.QUEUE_ENQUEUE.invokeExact(queue, ITEM);
+            for (int i = 0; i < depth; i++) blackhole.consume((Object) Core.QUEUE_DEQUEUE.invokeExact(queue));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// تشغيل بدون واجهة: ملف كامل من التعبيرات، سطر بسطر
+public class BatchMain {
+    private static final int BUFFER_SIZE = 1 << 20;
+    // عدد الأسطر اللي تتوزع على الـ threads مرة وحدة
+    private static final int BLOCK_SIZE = 8192;
+
+    public static void main(String[] args) {
+        String in = null;
+        String out = null;
+        String type = null;
+        String languageFile = null;
+        String precedenceFile = null;
+        String grammarFile = null;
+        String saveGrammar = null;
+        boolean evaluate = false;
+        boolean exact = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheSize = 0;
+        boolean single = false;
+        boolean withMetrics = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--in": in = value(args, ++i); break;
+                case "--out": out = value(args, ++i); break;
+                case "--type": type = value(args, ++i); break;
+                case "--language": languageFile = value(args, ++i); break;
+                case "--precedence": precedenceFile = value(args, ++i); break;
+                case "--grammar": grammarFile = value(args, ++i); break;
+                case "--save-grammar": saveGrammar = value(args, ++i); break;
+                case "--evaluate": evaluate = true; break;
+                case "--exact": evaluate = exact = true; break;
+                case "--threads": threads = number(args, ++i, 1); break;
+                case "--cache": cacheSize = number(args, ++i, 0); break;
+                case "--single": single = true; break;
+                case "--metrics": withMetrics = true; break;
+                default: usage("Unknown option: " + args[i]);
+            }
+        }
+        if (in == null || out == null || type == null) usage("--in, --out and --type are required");
+        if (!Arrays.asList(Converter.TYPES).contains(type)) usage("Unknown conversion type: " + type);
+        if ((languageFile == null) != (precedenceFile == null)) {
+            usage("Custom mode needs both --language and --precedence");
+        }
+        if (grammarFile != null && languageFile != null) usage("Use either --grammar or --language/--precedence");
+        if (saveGrammar != null && languageFile == null) usage("--save-grammar needs --language and --precedence");
+        if ((languageFile != null || grammarFile != null) && evaluate) usage("--evaluate is only available in conventional mode");
+        if (single && (!type.equals("infix-postfix") || evaluate)) {
+            usage("--single only supports --type infix-postfix without --evaluate");
+        }
+
+        ConverterConfig config = ConverterConfig.conventional();
+        ConverterMetrics metrics = withMetrics ? new ConverterMetrics() : null;
+        try {
+            if (languageFile != null) {
+                config = GrammarLoader.load(Paths.get(languageFile), Paths.get(precedenceFile));
+                if (saveGrammar != null) GrammarSnapshot.write(config, Paths.get(saveGrammar));
+            } else if (grammarFile != null) {
+                config = GrammarSnapshot.read(Paths.get(grammarFile));
+            }
+            if (single) {
+                runSingle(new Converter(config, metrics), in, out);
+                printMetrics(metrics);
+                return;
+            }
+            try (ParallelConverter parallel = new ParallelConverter(config, threads)) {
+                parallel.converter().setMetrics(metrics);
+                ConversionCache cache = cacheSize > 0
+                        ? new ConversionCache(parallel.converter(), cacheSize, 64L * cacheSize * 1024) : null;
+                run(parallel, cache, type, evaluate, exact, in, out);
+                if (cache != null) {
+                    System.err.printf("Cache: %d hits, %d misses, %d evictions%n",
+                            cache.hits(), cache.misses(), cache.evictions());
+                }
+            }
+            printMetrics(metrics);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void run(ParallelConverter parallel, ConversionCache cache, String type, boolean evaluate, boolean exact,
+                            String in, String out) throws IOException {
+        Converter converter = parallel.converter();
+        long lines = 0;
+        long errors = 0;
+        long chars = 0;
+        long startTime = System.nanoTime();
+        String[] block = new String[BLOCK_SIZE];
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(in), StandardCharsets.UTF_8), BUFFER_SIZE);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(out), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            // نقرأ block، نحوله على كل الـ cores، ونكتبه بنفس الترتيب
+            int count;
+            do {
+                count = 0;
+                String line;
+                while (count < BLOCK_SIZE && (line = reader.readLine()) != null) {
+                    block[count++] = line;
+                    chars += line.length() + 1;
+                }
+                String[] results = parallel.map(block, count, input -> process(converter, cache, type, evaluate, exact, input));
+                for (int i = 0; i < count; i++) {
+                    if (results[i].startsWith("Error: ")) errors++;
+                    writer.write(results[i]);
+                    writer.newLine();
+                }
+                lines += count;
+            } while (count == BLOCK_SIZE);
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.printf("Lines: %d (%d errors)%n", lines, errors);
+        System.err.printf("Time: %.3f s, %.0f lines/s, %.2f MB/s%n",
+                seconds, lines / seconds, chars / seconds / (1 << 20));
+    }
+
+    // الملف كله تعبير واحد (ممكن يكون أكبر من الذاكرة)
+    private static void runSingle(Converter converter, String in, String out) throws IOException {
+        long startTime = System.nanoTime();
+        try (Reader reader = new InputStreamReader(new FileInputStream(in), StandardCharsets.UTF_8);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(out), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            converter.infixToPostfix(reader, writer);
+            writer.write(System.lineSeparator());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.printf("Time: %.3f s, %.2f MB/s%n", seconds, new File(in).length() / seconds / (1 << 20));
+    }
+
+    // الأسطر الغلط ترجع كنتيجة (بدون exceptions) فالملف يكمل بنفس السرعة
+    private static String process(Converter converter, ConversionCache cache, String type, boolean evaluate, boolean exact,
+                                  String line) {
+        ConversionResult converted = cache != null ? cache.tryConvert(type, line) : converter.tryConvert(type, line);
+        if (!converted.isOk()) return "Error: " + converted.message();
+        String result = converted.value();
+        if (!evaluate) return result;
+        ConversionResult value;
+        if (exact) {
+            // بدون cache: الـ cache يحفظ double فقط
+            value = converter.tryEvaluatePostfixExact(toPostfix(converter, type, line, result));
+            if (!value.isOk()) return "Error: " + value.message();
+            return result + "\t" + plain(value.exact());
+        } else if (cache != null) {
+            value = cache.tryEvaluatePostfix(toPostfix(converter, type, line, result));
+        } else if (type.startsWith("infix-")) {
+            // بدون postfix وسيط
+            value = converter.tryEvaluateInfix(line);
+        } else {
+            value = converter.tryEvaluatePostfix(toPostfix(converter, type, line, result));
+        }
+        if (!value.isOk()) return "Error: " + value.message();
+        return result + "\t" + value.number();
+    }
+
+    // BigDecimal بدون صيغة 1E+20
+    private static String plain(Number value) {
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+
+    // نستخدم نتيجة التحويل إذا كانت postfix أصلاً
+    private static String toPostfix(Converter converter, String type, String line, String result) {
+        if (type.endsWith("-postfix")) return result;
+        if (type.startsWith("postfix-")) return line;
+        if (type.startsWith("infix-")) return converter.infixToPostfix(line);
+        return converter.prefixToPostfix(line);
+    }
+
+    private static void printMetrics(ConverterMetrics metrics) {
+        if (metrics != null) System.err.print(metrics.snapshot().summary());
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) usage("Missing value for " + args[i - 1]);
+        return args[i];
+    }
+
+    // عدد صحيح >= min، وإلا usage
+    private static int number(String[] args, int i, int min) {
+        String text = value(args, i);
+        int number;
+        try {
+            number = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            usage(args[i - 1] + " needs a whole number, got '" + text + "'");
+            return min;
+        }
+        if (number < min) usage(args[i - 1] + " must be at least " + min);
+        return number;
+    }
+
+    private static void usage(String error) {
+        System.err.println("Error: " + error);
+        System.err.println("Usage: java BatchMain --type <" + String.join("|", Converter.TYPES) + ">");
+        System.err.println("                      --in <file> --out <file>");
+        System.err.println("                      [--language <file> --precedence <file>] [--evaluate | --exact]");
+        System.err.println("                      [--save-grammar <snapshot>] | [--grammar <snapshot>]");
+        System.err.println("                      [--threads <n>] [--cache <entries>] [--metrics]");
+        System.err.println("       --exact evaluates with long/BigDecimal arithmetic instead of double");
+        System.err.println("       --single treats the whole input as one infix expression (infix-postfix only)");
+        System.exit(2);
+    }
+}
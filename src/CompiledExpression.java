@@ -0,0 +1,191 @@
+import java.util.Arrays;
+import java.util.Map;
+
+// تعبير مترجم مرة واحدة: مصفوفة تعليمات ثابتة نقدر نقيّمها كثير بقيم مختلفة
+public class CompiledExpression {
+    static final int CONSTANT = 0;
+    static final int VARIABLE = 1;
+    static final int ADD = 2;
+    static final int SUBTRACT = 3;
+    static final int MULTIPLY = 4;
+    static final int DIVIDE = 5;
+    static final int POWER = 6;
+
+    // ماذا نفعل بالصف اللي فيه قسمة على صفر في evaluateColumns
+    public static final int ON_ERROR_THROW = 0;
+    public static final int ON_ERROR_NAN = 1;
+
+    // عدد الصفوف في كل دفعة: كل عمود مؤقت 8KB حتى يبقى في الـ cache
+    private static final int CHUNK = 1024;
+
+    private final String postfix;
+    private final int[] code;
+    private final double[] constants;
+    private final String[] variables;
+    private final int maxDepth;
+
+    // code: كل تعليمة opcode؛ الـ CONSTANT و VARIABLE بعدها index
+    CompiledExpression(String postfix, int[] code, double[] constants, String[] variables, int maxDepth) {
+        this.postfix = postfix;
+        this.code = code;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxDepth = maxDepth;
+    }
+
+    // أسماء المتغيرات بنفس ترتيب قيم evaluate(double...)
+    public String[] variables() {
+        return variables.clone();
+    }
+
+    public int variableIndex(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    public double evaluate(Map<String, Double> bindings) {
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = bindings.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Unbound variable: '" + variables[i] + "'");
+            }
+            values[i] = value;
+        }
+        return evaluate(values);
+    }
+
+    public double evaluate(double... values) {
+        if (values.length != variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " variable values, got " + values.length);
+        }
+        double[] stack = new double[maxDepth];
+        int top = 0;
+        for (int pc = 0; pc < code.length; pc++) {
+            int op = code[pc];
+            if (op == CONSTANT) {
+                stack[top++] = constants[code[++pc]];
+            } else if (op == VARIABLE) {
+                stack[top++] = values[code[++pc]];
+            } else {
+                double b = stack[--top];
+                stack[top - 1] = apply(op, stack[top - 1], b);
+            }
+        }
+        return stack[0];
+    }
+
+    public void evaluateColumns(Map<String, double[]> columns, double[] result, int onError) {
+        double[][] ordered = new double[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            ordered[i] = columns.get(variables[i]);
+            if (ordered[i] == null) {
+                throw new IllegalArgumentException("Unbound variable: '" + variables[i] + "'");
+            }
+        }
+        evaluateColumns(ordered, result, onError);
+    }
+
+    // columns[i] هو عمود المتغير variables()[i]؛ النتيجة لكل صف في result.
+    // Every operator runs as one loop over a chunk of rows instead of once per row.
+    // A division by zero either throws (with the row number) or turns that row into NaN.
+    public void evaluateColumns(double[][] columns, double[] result, int onError) {
+        if (columns.length != variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " columns, got " + columns.length);
+        }
+        int rows = result.length;
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].length < rows) {
+                throw new IllegalArgumentException("Column '" + variables[i] + "' has fewer than " + rows + " rows");
+            }
+        }
+
+        int chunk = Math.min(CHUNK, Math.max(rows, 1));
+        double[][] stack = new double[maxDepth][chunk];
+        boolean[] failed = onError == ON_ERROR_NAN ? new boolean[chunk] : null;
+
+        for (int from = 0; from < rows; from += chunk) {
+            int n = Math.min(chunk, rows - from);
+            int top = 0;
+            for (int pc = 0; pc < code.length; pc++) {
+                int op = code[pc];
+                if (op == CONSTANT) {
+                    Arrays.fill(stack[top++], 0, n, constants[code[++pc]]);
+                } else if (op == VARIABLE) {
+                    System.arraycopy(columns[code[++pc]], from, stack[top++], 0, n);
+                } else {
+                    top--;
+                    applyColumns(op, stack[top - 1], stack[top], n, from, failed);
+                }
+            }
+            System.arraycopy(stack[0], 0, result, from, n);
+            if (failed != null) {
+                for (int i = 0; i < n; i++) {
+                    if (failed[i]) {
+                        result[from + i] = Double.NaN;
+                        failed[i] = false;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void applyColumns(int op, double[] a, double[] b, int n, int firstRow, boolean[] failed) {
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < n; i++) a[i] += b[i];
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < n; i++) a[i] -= b[i];
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < n; i++) a[i] *= b[i];
+                break;
+            case DIVIDE:
+                for (int i = 0; i < n; i++) {
+                    if (b[i] == 0) {
+                        if (failed == null) {
+                            throw new ArithmeticException("Division by zero at row " + (firstRow + i));
+                        }
+                        failed[i] = true;
+                    }
+                    a[i] /= b[i];
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) a[i] = Math.pow(a[i], b[i]);
+        }
+    }
+
+    // نفس قواعد Converter.calculate
+    static double apply(int op, double a, double b) {
+        switch (op) {
+            case ADD: return a + b;
+            case SUBTRACT: return a - b;
+            case MULTIPLY: return a * b;
+            case DIVIDE:
+                if (b == 0) throw new ArithmeticException("Division by zero");
+                return a / b;
+            default: return Math.pow(a, b);
+        }
+    }
+
+    static int opcode(String operator) {
+        switch (operator) {
+            case "+": return ADD;
+            case "-": return SUBTRACT;
+            case "*": return MULTIPLY;
+            case "/": return DIVIDE;
+            case "^": return POWER;
+            default:
+                throw new UnsupportedOperationException("Operator '" + operator + "' not supported for evaluation");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return postfix;
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// cache للنتائج قدام الـ Converter: الأقدم استخداماً يطلع أول (LRU)
+public class ConversionCache {
+    private static final String EVALUATE = "evaluate-postfix";
+
+    private final Converter converter;
+    private final int maxEntries;
+    private final long maxChars;
+    private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long chars;
+    // القواعد اللي انبنت عليها النتائج الموجودة (كل المفاتيح فيها نفس الـ instance)
+    private ConverterConfig lastConfig;
+    // آخر config ثاني بنفس المحتوى (reload لنفس الملفات): نقارنه مرة وحدة بس
+    private ConverterConfig lastAlias;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    // maxChars: حد تقريبي للذاكرة (طول المدخلات + النتائج)
+    public ConversionCache(Converter converter, int maxEntries, long maxChars) {
+        this.converter = converter;
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+        this.lastConfig = converter.getConfig();
+    }
+
+    public String convert(String type, String input) {
+        ConverterConfig config = converter.getConfig();
+        Key key = new Key(config, type, normalize(input));
+        Object cached = get(key);
+        if (cached != null) return (String) cached;
+
+        String result = new Converter(config, converter.getMetrics()).convert(type, key.input);
+        put(key, result, result.length());
+        return result;
+    }
+
+    public double evaluatePostfix(String postfix) {
+        ConverterConfig config = converter.getConfig();
+        Key key = new Key(config, EVALUATE, normalize(postfix));
+        Object cached = get(key);
+        if (cached != null) return (Double) cached;
+
+        double result = new Converter(config, converter.getMetrics()).evaluatePostfix(key.input);
+        put(key, result, 1);
+        return result;
+    }
+
+    // بدون exceptions؛ الأخطاء ما تنحفظ في الـ cache. التحويل على المدخل الأصلي
+    // (مش المختصر) حتى يبقى offset الخطأ صحيح، والنتيجة نفسها لأن المسافات ما تفرق
+    public ConversionResult tryConvert(String type, String input) {
+        ConverterConfig config = converter.getConfig();
+        Key key = new Key(config, type, normalize(input));
+        Object cached = get(key);
+        if (cached != null) return ConversionResult.of((String) cached);
+
+        ConversionResult result = new Converter(config, converter.getMetrics()).tryConvert(type, input);
+        if (result.isOk()) put(key, result.value(), result.value().length());
+        return result;
+    }
+
+    public ConversionResult tryEvaluatePostfix(String postfix) {
+        ConverterConfig config = converter.getConfig();
+        Key key = new Key(config, EVALUATE, normalize(postfix));
+        Object cached = get(key);
+        if (cached != null) return ConversionResult.of((Double) cached);
+
+        ConversionResult result = new Converter(config, converter.getMetrics()).tryEvaluatePostfix(postfix);
+        if (result.isOk()) put(key, result.number(), 1);
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        chars = 0;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized long evictions() { return evictions; }
+    public synchronized long invalidations() { return invalidations; }
+
+    private synchronized Object get(Key key) {
+        // setCustom أو resetToDefault غيّر القواعد: كل النتائج القديمة ما عادت صالحة.
+        // نفس القواعد بـ instance ثاني: المقارنة (O(vocabulary)) مرة وحدة، والمفتاح ياخذ
+        // lastConfig حتى equals يكون identity
+        ConverterConfig config = key.config;
+        if (config != lastConfig) {
+            if (config == lastAlias || config.sameGrammar(lastConfig)) {
+                lastAlias = config;
+                key.config = lastConfig;
+            } else {
+                if (!entries.isEmpty()) invalidations++;
+                clear();
+                lastConfig = config;
+                lastAlias = null;
+            }
+        }
+        Object value = entries.get(key);
+        if (value != null) hits++;
+        else misses++;
+        return value;
+    }
+
+    private synchronized void put(Key key, Object value, int valueChars) {
+        // القواعد تغيرت من thread ثاني بين get و put
+        if (key.config != lastConfig) return;
+        if (entries.put(key, value) == null) chars += key.input.length() + valueChars;
+        Iterator<Map.Entry<Key, Object>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || (chars > maxChars && entries.size() > 1)) {
+            Map.Entry<Key, Object> entry = eldest.next();
+            Object old = entry.getValue();
+            chars -= entry.getKey().input.length() + (old instanceof String ? ((String) old).length() : 1);
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // نفس التعبير بمسافات مختلفة يعطي نفس المفتاح
+    static String normalize(String input) {
+        if (isNormalized(input)) return input;
+        StringBuilder out = new StringBuilder(input.length());
+        Tokenizer tokens = new Tokenizer(input);
+        while (tokens.next()) {
+            if (out.length() > 0) out.append(' ');
+            out.append(input, tokens.start(), tokens.end());
+        }
+        return out.toString();
+    }
+
+    // مسافة واحدة بين كل token وما في مسافات على الأطراف
+    private static boolean isNormalized(String input) {
+        int length = input.length();
+        if (length == 0) return true;
+        if (input.charAt(0) == ' ' || input.charAt(length - 1) == ' ') return false;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == ' ') {
+                if (input.charAt(i + 1) == ' ') return false;
+            } else if (Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Key {
+        ConverterConfig config;
+        final String type;
+        final String input;
+        final int hash;
+
+        Key(ConverterConfig config, String type, String input) {
+            this.config = config;
+            this.type = type;
+            this.input = input;
+            this.hash = Objects.hash(config.fingerprint(), type, input);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return type.equals(other.type) && input.equals(other.input) && config.sameGrammar(other.config);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// الـ buffers اللي يحتاجها التحويل (stacks و Tokenizer و StringBuilders و الشجرة):
+// تنعاد بين الاستدعاءات، فالتحويل المتكرر ما يخصص غير نص النتيجة.
+// كل thread له واحد (current())، أو الـ caller يعطي واحد خاص فيه.
+// مش thread-safe: الـ context الواحد لتحويل واحد بنفس الوقت
+public final class ConversionContext {
+    // buffer كبر فوق هذا (تعبير ضخم مرة وحدة) ما ينحفظ للتحويل الجاي
+    private static final int MAX_RETAINED_CHARS = 1 << 16;
+    private static final int MAX_RETAINED_ITEMS = 1 << 14;
+
+    private static final ThreadLocal<ConversionContext> CURRENT = ThreadLocal.withInitial(ConversionContext::new);
+
+    final Stack<SymbolTable.Symbol> operators = new Stack<>(100);
+    final Tokenizer tokens = new Tokenizer("");
+    final Converter.Failure failure = new Converter.Failure();
+    DoubleStack values = new DoubleStack(100);
+    ExactStack exact = new ExactStack(100);
+    IntStack nodes = new IntStack(100);
+    IntStack order = new IntStack(100);
+    // input: نص وسيط (infix المعكوس)، work: نتيجة وسيطة (postfix قبل العكس)، output: النتيجة
+    StringBuilder input = new StringBuilder();
+    StringBuilder work = new StringBuilder();
+    StringBuilder output = new StringBuilder();
+    private ExpressionTree tree;
+
+    public static ConversionContext current() {
+        return CURRENT.get();
+    }
+
+    // قبل كل تحويل: كل شي فاضي، والـ buffers اللي كبرت كثير ترجع للذاكرة
+    void reset() {
+        operators.clear();
+        failure.clear();
+        values = values.capacity() > MAX_RETAINED_ITEMS ? new DoubleStack(100) : values;
+        values.clear();
+        exact = exact.capacity() > MAX_RETAINED_ITEMS ? new ExactStack(100) : exact;
+        exact.clear();
+        nodes = nodes.capacity() > MAX_RETAINED_ITEMS ? new IntStack(100) : nodes;
+        nodes.clear();
+        order = order.capacity() > MAX_RETAINED_ITEMS ? new IntStack(100) : order;
+        order.clear();
+        input = reuse(input);
+        work = reuse(work);
+        output = reuse(output);
+        if (tree != null && tree.capacity() > MAX_RETAINED_ITEMS) tree = null;
+    }
+
+    ExpressionTree tree(CharSequence source, int capacity) {
+        if (tree == null) tree = new ExpressionTree(source, capacity);
+        else tree.reset(source, capacity);
+        return tree;
+    }
+
+    private static StringBuilder reuse(StringBuilder buffer) {
+        if (buffer.capacity() > MAX_RETAINED_CHARS) return new StringBuilder();
+        buffer.setLength(0);
+        return buffer;
+    }
+}
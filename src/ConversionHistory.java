@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// سجل الجلسة: آخر maxEntries عملية في ring (الأقدم ينمسح)، مع تصدير كامل
+// وملف log اختياري يكتبه thread ثاني حتى التسجيل ما يأخر التحويل
+public class ConversionHistory {
+    public static final int FORMAT_TEXT = 0;
+    public static final int FORMAT_CSV = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LOG_QUEUE_SIZE = 1 << 14;
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final String CSV_HEADER = "time,mode,type,input,result,error,micros";
+
+    // عملية وحدة: result أو error (واحد منهم null)
+    public static class Record {
+        public final long timeMillis;
+        public final boolean custom;
+        public final String type;
+        public final String input;
+        public final String result;
+        public final String error;
+        public final long nanos;
+
+        Record(long timeMillis, boolean custom, String type, String input, String result, String error, long nanos) {
+            this.timeMillis = timeMillis;
+            this.custom = custom;
+            this.type = type;
+            this.input = input;
+            this.result = result;
+            this.error = error;
+            this.nanos = nanos;
+        }
+    }
+
+    // علامة للـ log thread إنه يكتب الباقي ويسكر
+    private static final Record END_OF_LOG = new Record(0, false, null, null, null, null, 0);
+
+    private final Record[] ring;
+    private int next;
+    private int count;
+    private long total;
+
+    private BlockingQueue<Record> logQueue;
+    private Thread logThread;
+    private final LongAdder logDropped = new LongAdder();
+    private volatile IOException logError;
+
+    public ConversionHistory(int maxEntries) {
+        ring = new Record[Math.max(maxEntries, 1)];
+    }
+
+    public void recordResult(boolean custom, String type, String input, String result, long nanos) {
+        record(new Record(System.currentTimeMillis(), custom, type, input, result, null, nanos));
+    }
+
+    public void recordError(boolean custom, String type, String input, String error, long nanos) {
+        record(new Record(System.currentTimeMillis(), custom, type, input, null, error, nanos));
+    }
+
+    private void record(Record record) {
+        BlockingQueue<Record> queue;
+        synchronized (this) {
+            ring[next] = record;
+            next = (next + 1) % ring.length;
+            if (count < ring.length) count++;
+            total++;
+            queue = logQueue;
+        }
+        // ما ننتظر الـ log أبداً: إذا الطابور مليان نحسبها ضايعة من الـ log (تبقى في الـ ring)
+        if (queue != null && !queue.offer(record)) logDropped.increment();
+    }
+
+    public synchronized int size() { return count; }
+    // كل العمليات من بداية الجلسة (حتى اللي طلعت من الـ ring)
+    public synchronized long total() { return total; }
+    public long logDropped() { return logDropped.sum(); }
+
+    // من الأقدم للأحدث
+    public synchronized Record[] records() {
+        Record[] result = new Record[count];
+        int first = (next - count + ring.length) % ring.length;
+        for (int i = 0; i < count; i++) result[i] = ring[(first + i) % ring.length];
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        next = 0;
+        count = 0;
+    }
+
+    // header يُكتب قبل السجل في FORMAT_TEXT فقط (مثلاً إعدادات الجلسة).
+    // نكتب في ملف مؤقت جنبه وبعدين نبدله، فالتقرير القديم يبقى إذا فشل التصدير بالنص
+    public void export(Path file, int format, String header) throws IOException {
+        Record[] records = records();
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            write(temp, records, format, header);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void write(Path file, Record[] records, int format, String header) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ChannelWriter out = new ChannelWriter(channel);
+            if (format == FORMAT_CSV) {
+                out.append(CSV_HEADER).append('\n');
+                for (Record record : records) appendCsv(out, record);
+            } else {
+                if (header != null) out.append(header).append('\n');
+                out.append("=== History (").append(records.length).append(" of ").append(total())
+                        .append(" conversions) ===\n\n");
+                for (Record record : records) appendText(out, record);
+            }
+            out.flush();
+        }
+    }
+
+    // كل عملية جديدة تنضاف لآخر الملف (CSV) من thread في الخلفية
+    public synchronized void startLog(Path file) throws IOException {
+        stopLog();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        BlockingQueue<Record> queue = new ArrayBlockingQueue<>(LOG_QUEUE_SIZE);
+        logError = null;
+        logThread = new Thread(() -> writeLog(channel, queue), "history-log");
+        logThread.setDaemon(true);
+        logThread.start();
+        logQueue = queue;
+    }
+
+    // يكتب اللي باقي في الطابور ويسكر الملف
+    public void stopLog() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            if (logQueue == null) return;
+            thread = logThread;
+            BlockingQueue<Record> queue = logQueue;
+            logQueue = null;
+            logThread = null;
+            while (!queue.offer(END_OF_LOG)) {
+                if (queue.poll() != null) logDropped.increment();
+            }
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        IOException error = logError;
+        if (error != null) throw error;
+    }
+
+    private void writeLog(FileChannel channel, BlockingQueue<Record> queue) {
+        ArrayList<Record> batch = new ArrayList<>();
+        try (FileChannel file = channel) {
+            ChannelWriter out = new ChannelWriter(file);
+            if (file.size() == 0) out.append(CSV_HEADER).append('\n');
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (Record record : batch) {
+                    if (record == END_OF_LOG) {
+                        out.flush();
+                        return;
+                    }
+                    appendCsv(out, record);
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (IOException e) {
+            logError = e;
+        } catch (InterruptedException e) {
+            // daemon thread انتهى مع البرنامج
+        }
+    }
+
+    private static void appendText(ChannelWriter out, Record record) throws IOException {
+        out.append('[').append(TIME.format(Instant.ofEpochMilli(record.timeMillis))).append("] ")
+                .append(record.custom ? "Custom" : "Conventional").append(", ").append(record.type)
+                .append(", ").append(String.format("%.3f", record.nanos / 1e6)).append(" ms\n");
+        out.append("  Input:  ").append(record.input).append('\n');
+        if (record.error != null) out.append("  Error:  ").append(record.error).append("\n\n");
+        else out.append("  Output: ").append(record.result).append("\n\n");
+    }
+
+    private static void appendCsv(ChannelWriter out, Record record) throws IOException {
+        out.append(TIME.format(Instant.ofEpochMilli(record.timeMillis))).append(',')
+                .append(record.custom ? "custom" : "conventional").append(',');
+        appendCsvField(out, record.type);
+        out.append(',');
+        appendCsvField(out, record.input);
+        out.append(',');
+        appendCsvField(out, record.result);
+        out.append(',');
+        appendCsvField(out, record.error);
+        out.append(',').append(record.nanos / 1000).append('\n');
+    }
+
+    // RFC 4180: الحقل بين "" إذا فيه , أو " أو سطر جديد
+    private static void appendCsvField(ChannelWriter out, String value) throws IOException {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    // نجمع النص في buffer ونرمزه UTF-8 على ByteBuffer واحد ثابت، فالكتابة على الـ channel بدفعات كبيرة
+    private static class ChannelWriter {
+        private final FileChannel channel;
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE * 3);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ChannelWriter append(char c) throws IOException {
+            if (!chars.hasRemaining()) drain();
+            chars.put(c);
+            return this;
+        }
+
+        ChannelWriter append(long value) throws IOException {
+            return append(Long.toString(value));
+        }
+
+        ChannelWriter append(String text) throws IOException {
+            int from = 0;
+            while (from < text.length()) {
+                if (!chars.hasRemaining()) drain();
+                int n = Math.min(chars.remaining(), text.length() - from);
+                chars.put(text, from, from + n);
+                from += n;
+            }
+            return this;
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        // الـ surrogate المقطوع في آخر الـ buffer يبقى للمرة الجاية
+        private void drain() throws IOException {
+            chars.flip();
+            encoder.encode(chars, bytes, false);
+            bytes.flip();
+            while (bytes.hasRemaining()) channel.write(bytes);
+            bytes.clear();
+            chars.compact();
+        }
+    }
+}
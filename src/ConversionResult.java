@@ -0,0 +1,119 @@
+// نتيجة بدون exceptions (tryConvert / tryEvaluatePostfix): قيمة، أو رقم خطأ مع مكان الـ token.
+// الرسالة تنبني فقط إذا أحد طلبها، وهي نفس رسالة الـ exception في الـ methods العادية.
+public class ConversionResult {
+    public static final int OK = 0;
+    public static final int INVALID_TOKEN = 1;
+    public static final int INVALID_POSTFIX = 2;
+    public static final int INVALID_PREFIX = 3;
+    public static final int DIVISION_BY_ZERO = 4;
+    public static final int NOT_SUPPORTED = 5;
+    // الحساب الدقيق: رقم خارج حدود BigDecimal (scale أكبر من int)
+    public static final int OUT_OF_RANGE = 6;
+
+    private final int code;
+    private final String value;
+    private final double number;
+    private final Number exact;
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+    private final int offset;
+
+    private ConversionResult(int code, String value, double number, Number exact,
+                             CharSequence source, int start, int end, int offset) {
+        this.code = code;
+        this.value = value;
+        this.number = number;
+        this.exact = exact;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.offset = offset;
+    }
+
+    static ConversionResult of(String value) {
+        return new ConversionResult(OK, value, Double.NaN, null, null, 0, 0, -1);
+    }
+
+    static ConversionResult of(double number) {
+        return new ConversionResult(OK, null, number, null, null, 0, 0, -1);
+    }
+
+    // tryEvaluatePostfixExact: القيمة Long أو BigDecimal أو Double
+    static ConversionResult of(Number exact) {
+        return new ConversionResult(OK, null, exact.doubleValue(), exact, null, 0, 0, -1);
+    }
+
+    // source.subSequence(start, end) = نص الـ token الغلط (source null إذا الخطأ في التعبير كله)
+    static ConversionResult failure(int code, CharSequence source, int start, int end, int offset) {
+        return new ConversionResult(code, null, Double.NaN, null, source, start, end, offset);
+    }
+
+    public boolean isOk() { return code == OK; }
+    public int errorCode() { return code; }
+
+    // النتيجة النصية للتحويلات
+    public String value() {
+        if (code != OK) throw toException();
+        return value;
+    }
+
+    // نتيجة tryEvaluatePostfix
+    public double number() {
+        if (code != OK) throw toException();
+        return number;
+    }
+
+    // نتيجة tryEvaluatePostfixExact (Long أو BigDecimal أو Double)
+    public Number exact() {
+        if (code != OK) throw toException();
+        return exact;
+    }
+
+    // مكان أول حرف في الـ token الغلط داخل المدخل، أو -1 إذا ما له مكان
+    public int offset() { return offset; }
+
+    public String token() {
+        return source == null ? null : source.subSequence(start, end).toString();
+    }
+
+    public String message() {
+        switch (code) {
+            case OK: return null;
+            case INVALID_TOKEN: return "Invalid token: '" + token() + "'";
+            case INVALID_POSTFIX: return "Invalid postfix expression";
+            case INVALID_PREFIX: return "Invalid prefix expression";
+            case DIVISION_BY_ZERO: return "Division by zero";
+            case OUT_OF_RANGE: return "Number out of range";
+            default: return "Evaluation not supported in custom mode";
+        }
+    }
+
+    // نفس الـ exception اللي كانت بترميه الـ methods العادية
+    public RuntimeException toException() {
+        switch (code) {
+            case OK: throw new IllegalStateException("Not an error");
+            case DIVISION_BY_ZERO:
+            case OUT_OF_RANGE: return new ArithmeticException(message());
+            case NOT_SUPPORTED: return new UnsupportedOperationException(message());
+            default: return new IllegalArgumentException(message());
+        }
+    }
+
+    // اسم نوع الـ exception (للـ metrics) بدون ما ننشئها
+    String exceptionName() {
+        switch (code) {
+            case DIVISION_BY_ZERO:
+            case OUT_OF_RANGE: return "ArithmeticException";
+            case NOT_SUPPORTED: return "UnsupportedOperationException";
+            default: return "IllegalArgumentException";
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (code != OK) return "Error: " + message();
+        if (value != null) return value;
+        return exact != null ? exact.toString() : Double.toString(number);
+    }
+}
@@ -1,197 +1,862 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
 public class Converter {
-    private String[] operators = {"+", "-", "*", "/", "^"};
-    private int[] priorities = {1, 1, 2, 2, 3};
-    private String[] operands = new String[0];
-    private boolean isCustom = false;
+    // أسماء أنواع التحويل لـ convert(type, input)
+    public static final String[] TYPES = {
+            "infix-postfix", "infix-prefix", "postfix-infix",
+            "postfix-prefix", "prefix-infix", "prefix-postfix"
+    };
+
+    // كل method تقرأ الإعدادات مرة واحدة، فتغييرها أثناء تحويل ما يخرب النتيجة
+    private volatile ConverterConfig config;
+    // null = بدون قياس (الافتراضي)
+    private volatile ConverterMetrics metrics;
+
+    public Converter() {
+        this(ConverterConfig.conventional());
+    }
+
+    public Converter(ConverterConfig config) {
+        this(config, null);
+    }
+
+    public Converter(ConverterConfig config, ConverterMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    public ConverterConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(ConverterConfig config) {
+        this.config = config;
+    }
+
+    public ConverterMetrics getMetrics() {
+        return metrics;
+    }
+
+    // null يوقف القياس
+    public void setMetrics(ConverterMetrics metrics) {
+        this.metrics = metrics;
+    }
 // custom mode enable
     public void setCustom(String[] ops, String[] customOps, int[] customPrio) {
-        isCustom = true;
-        operands = ops;
-        operators = customOps;
-        priorities = customPrio;
+        // نبني الجدول مرة واحدة فقط لنفس الملفات
+        ConverterConfig current = config;
+        if (current.isCustom() && current.sameGrammar(ops, customOps, customPrio)) return;
+        config = ConverterConfig.custom(ops, customOps, customPrio);
     }
 // ال default convinational
     public void resetToDefault() {
-        isCustom = false;
-        operands = new String[0];
-        operators = new String[]{"+", "-", "*", "/", "^"};
-        priorities = new int[]{1, 1, 2, 2, 3};
+        config = ConverterConfig.conventional();
     }
 // methods التحويل
     public String infixToPostfix(String infix) {
-        Stack<String> stack = new Stack<>(100);
-        StringBuilder result = new StringBuilder();
-        String[] tokens = infix.split(" ");
-
-        for (String token : tokens) {
-            if (isOperand(token)) {
-                result.append(token).append(" ");
-            } else if (token.equals("(")) {
-                stack.push(token);
-            } else if (token.equals(")")) {
-                while (!stack.isEmpty() && !stack.peek().equals("(")) {
-                    result.append(stack.pop()).append(" ");
+        return convert(ConverterMetrics.INFIX_POSTFIX, infix, ConversionContext.current());
+    }
+
+    // allowVariables: أسماء مثل x أو rate تعتبر معاملات (للـ compile فقط).
+    // يكتب الـ postfix في result (مسافة بعد كل token)؛ false إذا فيه خطأ (والتفاصيل في failure)
+    private static boolean infixToPostfix(SymbolTable symbols, String infix, boolean allowVariables,
+                                          ConversionContext context, StringBuilder result,
+                                          ConverterMetrics.Sample sample, Failure failure) {
+        Stack<SymbolTable.Symbol> stack = context.operators;
+        Tokenizer tokens = context.tokens;
+        tokens.reset(infix);
+
+        while (tokens.next()) {
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            int kind = symbol == null ? 0 : symbol.kind;
+            if (kind == 0 && allowVariables && isIdentifier(tokens)) kind = SymbolTable.OPERAND;
+            if (kind == SymbolTable.OPERAND) {
+                appendToken(result, tokens);
+            } else if (kind == SymbolTable.LEFT_PAREN) {
+                stack.push(symbol);
+            } else if (kind == SymbolTable.RIGHT_PAREN) {
+                while (!stack.isEmpty() && stack.peek().kind != SymbolTable.LEFT_PAREN) {
+                    result.append(stack.pop().text).append(" ");
                 }
                 if (!stack.isEmpty()) stack.pop();
-            } else if (isOperator(token)) {
-                while (!stack.isEmpty() && !stack.peek().equals("(") &&
-                        getPriority(stack.peek()) >= getPriority(token)) {
-                    result.append(stack.pop()).append(" ");
+            } else if (kind == SymbolTable.OPERATOR) {
+                while (!stack.isEmpty() && stack.peek().kind != SymbolTable.LEFT_PAREN &&
+                        stack.peek().priority >= symbol.priority) {
+                    result.append(stack.pop().text).append(" ");
                 }
-                stack.push(token);
+                stack.push(symbol);
             } else {
                 // Invalid token (unkown operator and operands)
-                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+                failure.at(ConversionResult.INVALID_TOKEN, tokens);
+                return false;
             }
         }
 
         while (!stack.isEmpty()) {
-            result.append(stack.pop()).append(" ");
+            result.append(stack.pop().text).append(" ");
         }
 
-        return result.toString().trim();
+        if (sample != null) sample.count(tokens.count(), stack.peak());
+        return true;
+    }
+
+    // نسخة streaming: تقرأ من Reader وتكتب الـ postfix أول بأول، والذاكرة بقدر عمق
+    // الـ stack فقط مش حجم التعبير. For a ReadableByteChannel use
+    // Channels.newReader(channel, charset). The writer is not flushed or closed.
+    public void infixToPostfix(Reader in, Writer out) throws IOException {
+        ConverterMetrics metrics = this.metrics;
+        if (metrics == null) {
+            infixToPostfix(config.symbols(), in, out, null);
+            return;
+        }
+        ConverterMetrics.Sample sample = metrics.start(ConverterMetrics.INFIX_POSTFIX);
+        try {
+            infixToPostfix(config.symbols(), in, out, sample);
+            sample.done();
+        } catch (IOException e) {
+            throw sample.failed(e);
+        } catch (RuntimeException e) {
+            throw sample.failed(e);
+        }
+    }
+
+    private void infixToPostfix(SymbolTable symbols, Reader in, Writer out, ConverterMetrics.Sample sample) throws IOException {
+        Stack<SymbolTable.Symbol> stack = new Stack<>(100);
+        StringBuilder token = new StringBuilder();
+        Tokenizer tokens = new Tokenizer(token);
+        TokenWriter result = new TokenWriter(out);
+        char[] buffer = new char[8192];
+        int count = 0;
+
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (!Character.isWhitespace(c)) {
+                    token.append(c);
+                } else if (token.length() > 0) {
+                    streamToken(symbols, tokens, token, stack, result);
+                    count++;
+                }
+            }
+        }
+        if (token.length() > 0) {
+            streamToken(symbols, tokens, token, stack, result);
+            count++;
+        }
+
+        while (!stack.isEmpty()) {
+            result.write(stack.pop().text);
+        }
+        if (sample != null) sample.count(count, stack.peak());
+    }
+
+    // خطوة shunting-yard لـ token واحد؛ المشغلات تطلع للـ writer أول ما تنفك من الـ stack
+    private static void streamToken(SymbolTable symbols, Tokenizer tokens, StringBuilder token,
+                                    Stack<SymbolTable.Symbol> stack, TokenWriter result) throws IOException {
+        tokens.reset(token);
+        tokens.next();
+        SymbolTable.Symbol symbol = resolve(symbols, tokens);
+        int kind = symbol == null ? 0 : symbol.kind;
+        if (kind == SymbolTable.OPERAND) {
+            result.write(token);
+        } else if (kind == SymbolTable.LEFT_PAREN) {
+            stack.push(symbol);
+        } else if (kind == SymbolTable.RIGHT_PAREN) {
+            while (!stack.isEmpty() && stack.peek().kind != SymbolTable.LEFT_PAREN) {
+                result.write(stack.pop().text);
+            }
+            if (!stack.isEmpty()) stack.pop();
+        } else if (kind == SymbolTable.OPERATOR) {
+            while (!stack.isEmpty() && stack.peek().kind != SymbolTable.LEFT_PAREN &&
+                    stack.peek().priority >= symbol.priority) {
+                result.write(stack.pop().text);
+            }
+            stack.push(symbol);
+        } else {
+            throw invalidToken(tokens);
+        }
+        token.setLength(0);
+    }
+
+    // يكتب tokens بينها مسافة واحدة (بدون مسافة في الآخر)
+    private static class TokenWriter {
+        private final Writer out;
+        private boolean first = true;
+
+        TokenWriter(Writer out) {
+            this.out = out;
+        }
+
+        void write(CharSequence token) throws IOException {
+            if (!first) out.write(' ');
+            out.append(token);
+            first = false;
+        }
     }
 
     public String infixToPrefix(String infix) {
-        String reversed = reverseInfix(infix);
-        String postfix = infixToPostfix(reversed);
-        return reverseExpression(postfix);
+        return convert(ConverterMetrics.INFIX_PREFIX, infix, ConversionContext.current());
+    }
+
+    // infix المعكوس ← postfix ← نعكسه، في buffers الـ context. المعكوس يصير String
+    // حتى الـ Tokenizer يشوف String بس (CharSequence ثاني يبطئ كل التحويلات)
+    private static boolean infixToPrefix(SymbolTable symbols, String infix, ConversionContext context,
+                                         ConverterMetrics.Sample sample, Failure failure) {
+        reverseInfix(infix, context.tokens, context.input);
+        String reversed = context.input.toString();
+        if (!infixToPostfix(symbols, reversed, false, context, context.work, sample, failure)) {
+            failure.mapReversed(infix);
+            return false;
+        }
+        reverseTokens(context.work, context.output);
+        return true;
     }
 
     public String postfixToInfix(String postfix) {
-        Stack<String> stack = new Stack<>(100);
-        String[] tokens = postfix.split(" ");
+        return convert(ConverterMetrics.POSTFIX_INFIX, postfix, ConversionContext.current());
+    }
+
+    public String prefixToInfix(String prefix) {
+        return convert(ConverterMetrics.PREFIX_INFIX, prefix, ConversionContext.current());
+    }
 
-        for (String token : tokens) {
-            if (isOperand(token)) {
-                stack.push(token);
-            } else if (isOperator(token)) {
+    // مباشرة على الـ tokens بدون المرور على infix
+    public String postfixToPrefix(String postfix) {
+        return convert(ConverterMetrics.POSTFIX_PREFIX, postfix, ConversionContext.current());
+    }
+
+    public String prefixToPostfix(String prefix) {
+        return convert(ConverterMetrics.PREFIX_POSTFIX, prefix, ConversionContext.current());
+    }
+
+    public String convert(String type, String input) {
+        return convert(operation(type), input, ConversionContext.current());
+    }
+
+    // بـ context من الـ caller بدل اللي للـ thread
+    public String convert(String type, String input, ConversionContext context) {
+        return convert(operation(type), input, context);
+    }
+
+    // مثل convert بس بدون exceptions للمدخلات الغلط: مناسبة للـ batch لما الأخطاء كثيرة
+    public ConversionResult tryConvert(String type, String input) {
+        return tryConvert(type, input, ConversionContext.current());
+    }
+
+    public ConversionResult tryConvert(String type, String input, ConversionContext context) {
+        int operation = operation(type);
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(operation);
+        context.reset();
+        Failure failure = context.failure;
+        String result = run(operation, input, context, sample, failure);
+        if (result == null) {
+            if (sample != null) sample.failed(failure.toResult().exceptionName());
+            return failure.toResult();
+        }
+        if (sample != null) sample.done();
+        return ConversionResult.of(result);
+    }
+
+    // operation: ترتيب TYPES (نفس أرقام ConverterMetrics)
+    private String convert(int operation, String input, ConversionContext context) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(operation);
+        context.reset();
+        Failure failure = context.failure;
+        String result = run(operation, input, context, sample, failure);
+        if (result == null) {
+            RuntimeException e = failure.toResult().toException();
+            throw sample != null ? sample.failed(e) : e;
+        }
+        if (sample != null) sample.done();
+        return result;
+    }
+
+    // الإعدادات تنقرأ مرة وحدة هنا؛ النتيجة تنبني في context.output
+    private String run(int operation, String input, ConversionContext context,
+                       ConverterMetrics.Sample sample, Failure failure) {
+        SymbolTable symbols = config.symbols();
+        StringBuilder out = context.output;
+        try {
+            switch (operation) {
+                case ConverterMetrics.INFIX_POSTFIX:
+                    if (!infixToPostfix(symbols, input, false, context, out, sample, failure)) return null;
+                    break;
+                case ConverterMetrics.INFIX_PREFIX:
+                    if (!infixToPrefix(symbols, input, context, sample, failure)) return null;
+                    break;
+                case ConverterMetrics.POSTFIX_INFIX: {
+                    ExpressionTree tree = parsePostfix(symbols, input, context, sample, failure);
+                    if (tree == null) return null;
+                    tree.appendInfix(out, context.nodes);
+                    break;
+                }
+                case ConverterMetrics.POSTFIX_PREFIX: {
+                    ExpressionTree tree = parsePostfix(symbols, input, context, sample, failure);
+                    if (tree == null) return null;
+                    tree.appendPrefix(out, context.nodes);
+                    break;
+                }
+                case ConverterMetrics.PREFIX_INFIX: {
+                    ExpressionTree tree = parsePrefix(symbols, input, context, sample, failure);
+                    if (tree == null) return null;
+                    tree.appendInfix(out, context.nodes);
+                    break;
+                }
+                default: {
+                    ExpressionTree tree = parsePrefix(symbols, input, context, sample, failure);
+                    if (tree == null) return null;
+                    tree.appendPostfix(out, context.nodes, context.order);
+                }
+            }
+        } catch (RuntimeException e) {
+            // مثل إلغاء المهمة (CancellationException)
+            throw sample != null ? sample.failed(e) : e;
+        }
+        return trimLastSpace(out);
+    }
+
+    private static int operation(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return i;
+        }
+        throw new IllegalArgumentException("Unknown conversion type: " + type);
+    }
+
+    public double evaluatePostfix(String postfix) {
+        return evaluatePostfix(postfix, ConversionContext.current());
+    }
+
+    public double evaluatePostfix(String postfix, ConversionContext context) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_POSTFIX);
+        context.reset();
+        Failure failure = context.failure;
+        double result = evaluatePostfix(config, postfix, context, sample, failure);
+        if (failure.code != ConversionResult.OK) {
+            RuntimeException e = failure.toResult().toException();
+            throw sample != null ? sample.failed(e) : e;
+        }
+        if (sample != null) sample.done();
+        return result;
+    }
+
+    public ConversionResult tryEvaluatePostfix(String postfix) {
+        return tryEvaluatePostfix(postfix, ConversionContext.current());
+    }
+
+    public ConversionResult tryEvaluatePostfix(String postfix, ConversionContext context) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_POSTFIX);
+        context.reset();
+        Failure failure = context.failure;
+        double result = evaluatePostfix(config, postfix, context, sample, failure);
+        if (failure.code != ConversionResult.OK) {
+            if (sample != null) sample.failed(failure.toResult().exceptionName());
+            return failure.toResult();
+        }
+        if (sample != null) sample.done();
+        return ConversionResult.of(result);
+    }
+
+    // يرجع NaN مع failure.code إذا فيه خطأ
+    private static double evaluatePostfix(ConverterConfig config, String postfix, ConversionContext context,
+                                          ConverterMetrics.Sample sample, Failure failure) {
+        // في الوضع المخصص، لا يمكن التقييم
+        if (config.isCustom()) {
+            failure.code = ConversionResult.NOT_SUPPORTED;
+            return Double.NaN;
+        }
+
+        DoubleStack stack = context.values;
+        Tokenizer tokens = context.tokens;
+        tokens.reset(postfix);
+
+        while (tokens.next()) {
+            // الرقم يتحول مرة واحدة فقط داخل الـ Tokenizer
+            if (tokens.isNumber()) {
+                stack.push(tokens.number());
+                continue;
+            }
+            SymbolTable.Symbol symbol = resolve(config.symbols(), tokens);
+            if (symbol != null && symbol.kind == SymbolTable.OPERATOR) {
                 if (stack.size() < 2) {
-                    throw new IllegalArgumentException("Invalid postfix expression");
+                    failure.at(ConversionResult.INVALID_POSTFIX, tokens);
+                    return Double.NaN;
                 }
-                String op2 = stack.pop();
-                String op1 = stack.pop();
-                stack.push("( " + op1 + " " + token + " " + op2 + " )");
+                double op2 = stack.pop();
+                double op1 = stack.pop();
+                if (op2 == 0 && isChar(tokens, '/')) {
+                    failure.at(ConversionResult.DIVISION_BY_ZERO, tokens);
+                    return Double.NaN;
+                }
+                stack.push(calculate(symbol.text, op1, op2));
             } else {
-                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+                failure.at(ConversionResult.INVALID_TOKEN, tokens);
+                return Double.NaN;
             }
         }
 
         if (stack.size() != 1) {
-            throw new IllegalArgumentException("Invalid postfix expression");
+            failure.code = ConversionResult.INVALID_POSTFIX;
+            return Double.NaN;
         }
+        if (sample != null) sample.count(tokens.count(), stack.peak());
         return stack.pop();
     }
 
-    public String prefixToInfix(String prefix) {
-        Stack<String> stack = new Stack<>(100);
-        String[] tokens = prefix.split(" ");
-
-        for (int i = tokens.length - 1; i >= 0; i--) {
-            String token = tokens[i];
-            if (isOperand(token)) {
-                stack.push(token);
-            } else if (isOperator(token)) {
-                if (stack.size() < 2) {
-                    throw new IllegalArgumentException("Invalid prefix expression");
+    // حساب دقيق: Long ما دام التعبير أعداد صحيحة (مع فحص التجاوز و ^ بالتربيع)،
+    // BigDecimal إذا كبر الرقم أو فيه كسور منتهية، و Double بس لما ما في نتيجة دقيقة
+    // الـ metrics تنحسب مع EVALUATE_POSTFIX
+    public Number evaluatePostfixExact(String postfix) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_POSTFIX);
+        ConversionContext context = ConversionContext.current();
+        context.reset();
+        Failure failure = context.failure;
+        Number result = evaluatePostfixExact(config, postfix, context, sample, failure);
+        if (result == null) {
+            RuntimeException e = failure.toResult().toException();
+            throw sample != null ? sample.failed(e) : e;
+        }
+        if (sample != null) sample.done();
+        return result;
+    }
+
+    public ConversionResult tryEvaluatePostfixExact(String postfix) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_POSTFIX);
+        ConversionContext context = ConversionContext.current();
+        context.reset();
+        Failure failure = context.failure;
+        Number result = evaluatePostfixExact(config, postfix, context, sample, failure);
+        if (result == null) {
+            if (sample != null) sample.failed(failure.toResult().exceptionName());
+            return failure.toResult();
+        }
+        if (sample != null) sample.done();
+        return ConversionResult.of(result);
+    }
+
+    // نفس قواعد evaluatePostfix والأخطاء نفسها، بس بقيم دقيقة
+    private static Number evaluatePostfixExact(ConverterConfig config, String postfix, ConversionContext context,
+                                               ConverterMetrics.Sample sample, Failure failure) {
+        if (config.isCustom()) {
+            failure.code = ConversionResult.NOT_SUPPORTED;
+            return null;
+        }
+
+        ExactStack stack = context.exact;
+        Tokenizer tokens = context.tokens;
+        tokens.reset(postfix);
+
+        while (tokens.next()) {
+            // ExactStack ينزل لـ double قبل ما يكبر الرقم أو الـ scale، فهذا احتياط بس
+            try {
+                if (tokens.isNumber()) {
+                    stack.pushLiteral(tokens.source(), tokens.start(), tokens.end());
+                    continue;
                 }
-                String op1 = stack.pop();
-                String op2 = stack.pop();
-                stack.push("( " + op1 + " " + token + " " + op2 + " )");
-            } else {
-                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+                SymbolTable.Symbol symbol = resolve(config.symbols(), tokens);
+                if (symbol != null && symbol.kind == SymbolTable.OPERATOR) {
+                    if (stack.size() < 2) {
+                        return failure.at(ConversionResult.INVALID_POSTFIX, tokens);
+                    }
+                    if (!stack.apply(CompiledExpression.opcode(symbol.text))) {
+                        return failure.at(ConversionResult.DIVISION_BY_ZERO, tokens);
+                    }
+                } else {
+                    return failure.at(ConversionResult.INVALID_TOKEN, tokens);
+                }
+            } catch (ArithmeticException e) {
+                return failure.at(ConversionResult.OUT_OF_RANGE, tokens);
             }
         }
 
         if (stack.size() != 1) {
-            throw new IllegalArgumentException("Invalid prefix expression");
+            failure.code = ConversionResult.INVALID_POSTFIX;
+            return null;
         }
+        if (sample != null) sample.count(tokens.count(), stack.peak());
         return stack.pop();
     }
 
-    public String postfixToPrefix(String postfix) {
-        String infix = postfixToInfix(postfix);
-        return infixToPrefix(infix);
+    // infix مباشرة بدون postfix وسيط: stack للمشغلات و stack للأرقام (two-stack).
+    // النتيجة والأخطاء نفس infixToPostfix ثم evaluatePostfix
+    public double evaluateInfix(String infix) {
+        return evaluateInfix(infix, null);
     }
 
-    public String prefixToPostfix(String prefix) {
-        String infix = prefixToInfix(prefix);
-        return infixToPostfix(infix);
+    // postfix != null: يضاف فيه الـ postfix أثناء التقييم (للعرض مثلاً)
+    public double evaluateInfix(String infix, StringBuilder postfix) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_INFIX);
+        ConversionContext context = ConversionContext.current();
+        context.reset();
+        Failure failure = context.failure;
+        double result = evaluateInfix(config, infix, postfix, context, sample, failure);
+        if (failure.code != ConversionResult.OK) {
+            RuntimeException e = failure.toResult().toException();
+            throw sample != null ? sample.failed(e) : e;
+        }
+        if (sample != null) sample.done();
+        return result;
     }
 
-    public double evaluatePostfix(String postfix) {
-        // في الوضع المخصص، لا يمكن التقييم
-        if (isCustom) {
+    public ConversionResult tryEvaluateInfix(String infix) {
+        ConverterMetrics metrics = this.metrics;
+        ConverterMetrics.Sample sample = metrics == null ? null : metrics.start(ConverterMetrics.EVALUATE_INFIX);
+        ConversionContext context = ConversionContext.current();
+        context.reset();
+        Failure failure = context.failure;
+        double result = evaluateInfix(config, infix, null, context, sample, failure);
+        if (failure.code != ConversionResult.OK) {
+            if (sample != null) sample.failed(failure.toResult().exceptionName());
+            return failure.toResult();
+        }
+        if (sample != null) sample.done();
+        return ConversionResult.of(result);
+    }
+
+    private static double evaluateInfix(ConverterConfig config, String infix, StringBuilder postfix,
+                                        ConversionContext context, ConverterMetrics.Sample sample, Failure failure) {
+        if (config.isCustom()) {
+            failure.code = ConversionResult.NOT_SUPPORTED;
+            return Double.NaN;
+        }
+        SymbolTable symbols = config.symbols();
+        Stack<SymbolTable.Symbol> operators = context.operators;
+        DoubleStack values = context.values;
+        Tokenizer tokens = context.tokens;
+        tokens.reset(infix);
+        int postfixStart = postfix == null ? 0 : postfix.length();
+
+        // أول خطأ تقييم يبقى في failure لآخر التعبير، لأن الـ token الغلط كان ينكشف قبل أي تقييم
+        while (tokens.next()) {
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            int kind = symbol == null ? 0 : symbol.kind;
+            if (kind == SymbolTable.OPERAND) {
+                values.push(tokens.number());
+                if (postfix != null) appendToken(postfix, tokens);
+            } else if (kind == SymbolTable.LEFT_PAREN) {
+                operators.push(symbol);
+            } else if (kind == SymbolTable.RIGHT_PAREN) {
+                while (!operators.isEmpty() && operators.peek().kind != SymbolTable.LEFT_PAREN) {
+                    reduce(operators.pop(), values, postfix, failure);
+                }
+                if (!operators.isEmpty()) operators.pop();
+            } else if (kind == SymbolTable.OPERATOR) {
+                while (!operators.isEmpty() && operators.peek().kind != SymbolTable.LEFT_PAREN &&
+                        operators.peek().priority >= symbol.priority) {
+                    reduce(operators.pop(), values, postfix, failure);
+                }
+                operators.push(symbol);
+            } else {
+                failure.at(ConversionResult.INVALID_TOKEN, tokens);
+                return Double.NaN;
+            }
+        }
+
+        while (!operators.isEmpty()) {
+            reduce(operators.pop(), values, postfix, failure);
+        }
+        if (postfix != null && postfix.length() > postfixStart) postfix.setLength(postfix.length() - 1);
+        if (failure.code != ConversionResult.OK) return Double.NaN;
+        if (values.size() != 1) {
+            failure.code = ConversionResult.INVALID_POSTFIX;
+            return Double.NaN;
+        }
+        if (sample != null) sample.count(tokens.count(), Math.max(operators.peak(), values.peak()));
+        return values.pop();
+    }
+
+    // يطبق مشغل واحد على آخر رقمين؛ بعد أول خطأ يكتب الـ postfix بس
+    private static void reduce(SymbolTable.Symbol operator, DoubleStack values, StringBuilder postfix, Failure failure) {
+        if (postfix != null) postfix.append(operator.text).append(' ');
+        if (failure.code != ConversionResult.OK) return;
+        // قوس ( بدون ) يوصل للـ postfix ويرفضه evaluatePostfix
+        if (operator.kind != SymbolTable.OPERATOR) {
+            failure.token(ConversionResult.INVALID_TOKEN, operator.text);
+            return;
+        }
+        if (values.size() < 2) {
+            failure.code = ConversionResult.INVALID_POSTFIX;
+            return;
+        }
+        double op2 = values.pop();
+        double op1 = values.pop();
+        if (op2 == 0 && operator.text.equals("/")) {
+            failure.code = ConversionResult.DIVISION_BY_ZERO;
+            return;
+        }
+        values.push(calculate(operator.text, op1, op2));
+    }
+
+    // نترجم التعبير مرة واحدة ونقيّمه بعدين كثير بدون parse
+    public CompiledExpression compile(String infix) {
+        ConverterConfig config = this.config;
+        if (config.isCustom()) {
+            throw new UnsupportedOperationException("Evaluation not supported in custom mode");
+        }
+        return compilePostfix(config.symbols(), variablesToPostfix(config.symbols(), infix));
+    }
+
+    public CompiledExpression compilePostfix(String postfix) {
+        ConverterConfig config = this.config;
+        if (config.isCustom()) {
             throw new UnsupportedOperationException("Evaluation not supported in custom mode");
         }
+        return compilePostfix(config.symbols(), postfix);
+    }
 
-        Stack<Double> stack = new Stack<>(100);
-        String[] tokens = postfix.split(" ");
+    private static String variablesToPostfix(SymbolTable symbols, String infix) {
+        ConversionContext context = ConversionContext.current();
+        context.reset();
+        if (!infixToPostfix(symbols, infix, true, context, context.output, null, context.failure)) {
+            throw context.failure.toResult().toException();
+        }
+        return trimLastSpace(context.output);
+    }
 
-        for (String token : tokens) {
-            if (isNumeric(token)) {
-                stack.push(Double.parseDouble(token));
-            } else if (isOperator(token)) {
-                if (stack.size() < 2) {
+    private CompiledExpression compilePostfix(SymbolTable symbols, String postfix) {
+
+        IntStack code = new IntStack(postfix.length() / 2 + 2);
+        DoubleStack constants = new DoubleStack(16);
+        HashMap<String, Integer> variables = new HashMap<>();
+        int depth = 0;
+        int maxDepth = 0;
+        Tokenizer tokens = new Tokenizer(postfix);
+
+        while (tokens.next()) {
+            if (tokens.isNumber()) {
+                code.push(CompiledExpression.CONSTANT);
+                code.push(constants.size());
+                constants.push(tokens.number());
+                maxDepth = Math.max(maxDepth, ++depth);
+                continue;
+            }
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            if (symbol != null && symbol.kind == SymbolTable.OPERATOR) {
+                if (depth < 2) {
                     throw new IllegalArgumentException("Invalid postfix expression");
                 }
-                double op2 = stack.pop();
-                double op1 = stack.pop();
-                stack.push(calculate(token, op1, op2));
+                code.push(CompiledExpression.opcode(symbol.text));
+                depth--;
+            } else if (symbol == null && isIdentifier(tokens)) {
+                Integer index = variables.putIfAbsent(tokens.text(), variables.size());
+                code.push(CompiledExpression.VARIABLE);
+                code.push(index == null ? variables.size() - 1 : index);
+                maxDepth = Math.max(maxDepth, ++depth);
             } else {
-                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+                throw invalidToken(tokens);
             }
         }
 
-        if (stack.size() != 1) {
+        if (depth != 1) {
             throw new IllegalArgumentException("Invalid postfix expression");
         }
-        return stack.pop();
+        String[] names = new String[variables.size()];
+        for (Map.Entry<String, Integer> variable : variables.entrySet()) {
+            names[variable.getValue()] = variable.getKey();
+        }
+        return new CompiledExpression(postfix, code.toArray(), constants.toArray(), names, maxDepth);
+    }
+
+    // طي الثوابت ودمج التعبيرات المكررة، انظر ExpressionDag
+    public ExpressionDag optimize(String infix) {
+        ConverterConfig config = this.config;
+        if (config.isCustom()) {
+            throw new UnsupportedOperationException("Evaluation not supported in custom mode");
+        }
+        return optimizePostfix(config.symbols(), variablesToPostfix(config.symbols(), infix));
     }
 
-    private boolean isOperand(String token) {
-        if (isCustom) {
-            // في الوضع المخصص: نتحقق من قائمة المعاملات
-            for (String operand : operands) {
-                if (operand.equals(token)) {
-                    return true;
+    public ExpressionDag optimizePostfix(String postfix) {
+        ConverterConfig config = this.config;
+        if (config.isCustom()) {
+            throw new UnsupportedOperationException("Evaluation not supported in custom mode");
+        }
+        return optimizePostfix(config.symbols(), postfix);
+    }
+
+    private ExpressionDag optimizePostfix(SymbolTable symbols, String postfix) {
+        ExpressionDag.Builder dag = new ExpressionDag.Builder();
+        IntStack stack = new IntStack(100);
+        Tokenizer tokens = new Tokenizer(postfix);
+
+        while (tokens.next()) {
+            if (tokens.isNumber()) {
+                stack.push(dag.constant(tokens.number(), tokens.text()));
+                continue;
+            }
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            if (symbol != null && symbol.kind == SymbolTable.OPERATOR) {
+                if (stack.size() < 2) {
+                    throw new IllegalArgumentException("Invalid postfix expression");
                 }
+                int op2 = stack.pop();
+                int op1 = stack.pop();
+                stack.push(dag.operator(CompiledExpression.opcode(symbol.text), op1, op2));
+            } else if (symbol == null && isIdentifier(tokens)) {
+                stack.push(dag.variable(tokens.text()));
+            } else {
+                throw invalidToken(tokens);
             }
-            return false;
-        } else {
-            // في الوضع العادي: نتحقق إذا كان رقم
-            return isNumeric(token);
         }
+
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Invalid postfix expression");
+        }
+        return dag.build(stack.pop());
     }
 
-    private boolean isOperator(String token) {
-        for (String op : operators) {
-            if (op.equals(token)) {
-                return true;
+    // نفس المعادلة على أعمدة كاملة (متغير لكل عمود)، انظر CompiledExpression.evaluateColumns
+    public void evaluatePostfix(String postfix, Map<String, double[]> columns, double[] result, int onError) {
+        compilePostfix(postfix).evaluateColumns(columns, result, onError);
+    }
+
+    private static ExpressionTree parsePostfix(SymbolTable symbols, String postfix, ConversionContext context,
+                                          ConverterMetrics.Sample sample, Failure failure) {
+        ExpressionTree tree = context.tree(postfix, postfix.length() / 2 + 1);
+        IntStack stack = context.nodes;
+        Tokenizer tokens = context.tokens;
+        tokens.reset(postfix);
+
+        while (tokens.next()) {
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            int kind = symbol == null ? 0 : symbol.kind;
+            if (kind == SymbolTable.OPERAND) {
+                stack.push(tree.addLeaf(tokens.start(), tokens.end()));
+            } else if (kind == SymbolTable.OPERATOR) {
+                if (stack.size() < 2) {
+                    return failure.at(ConversionResult.INVALID_POSTFIX, tokens);
+                }
+                int op2 = stack.pop();
+                int op1 = stack.pop();
+                stack.push(tree.addNode(tokens.start(), tokens.end(), op1, op2));
+            } else {
+                return failure.at(ConversionResult.INVALID_TOKEN, tokens);
             }
         }
-        return false;
+
+        if (stack.size() != 1) {
+            failure.code = ConversionResult.INVALID_POSTFIX;
+            return null;
+        }
+        if (sample != null) sample.count(tokens.count(), stack.peak());
+        return tree;
     }
 
-    private int getPriority(String op) {
-        for (int i = 0; i < operators.length; i++) {
-            if (operators[i].equals(op)) {
-                return priorities[i];
+    private static ExpressionTree parsePrefix(SymbolTable symbols, String prefix, ConversionContext context,
+                                          ConverterMetrics.Sample sample, Failure failure) {
+        ExpressionTree tree = context.tree(prefix, prefix.length() / 2 + 1);
+        IntStack stack = context.nodes;
+        Tokenizer tokens = context.tokens;
+        tokens.resetToEnd(prefix);
+
+        while (tokens.previous()) {
+            SymbolTable.Symbol symbol = resolve(symbols, tokens);
+            int kind = symbol == null ? 0 : symbol.kind;
+            if (kind == SymbolTable.OPERAND) {
+                stack.push(tree.addLeaf(tokens.start(), tokens.end()));
+            } else if (kind == SymbolTable.OPERATOR) {
+                if (stack.size() < 2) {
+                    return failure.at(ConversionResult.INVALID_PREFIX, tokens);
+                }
+                int op1 = stack.pop();
+                int op2 = stack.pop();
+                stack.push(tree.addNode(tokens.start(), tokens.end(), op1, op2));
+            } else {
+                return failure.at(ConversionResult.INVALID_TOKEN, tokens);
             }
         }
-        return 0;
+
+        if (stack.size() != 1) {
+            failure.code = ConversionResult.INVALID_PREFIX;
+            return null;
+        }
+        if (sample != null) sample.count(tokens.count(), stack.peak());
+        return tree;
     }
 
-    private boolean isNumeric(String str) {
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    // الخطأ اللي صار (بدل exception)؛ الـ methods العادية تحوله لنفس الـ exception القديمة
+    static final class Failure {
+        int code = ConversionResult.OK;
+        CharSequence source;
+        int start;
+        int end;
+        int offset = -1;
+
+        void clear() {
+            code = ConversionResult.OK;
+            source = null;
+            offset = -1;
+        }
+
+        <T> T at(int code, Tokenizer tokens) {
+            this.code = code;
+            source = tokens.source();
+            start = tokens.start();
+            end = tokens.end();
+            offset = start;
+            return null;
+        }
+
+        // token بدون مكان معروف (مثل قوس ( ما انسكر)
+        void token(int code, String text) {
+            this.code = code;
+            source = text;
+            start = 0;
+            end = text.length();
+            offset = -1;
+        }
+
+        // infixToPrefix يشتغل على النص المعكوس: الـ token رقم k من البداية هناك
+        // هو الـ token رقم k من الآخر في المدخل الأصلي
+        void mapReversed(String infix) {
+            if (offset < 0) return;
+            Tokenizer tokens = new Tokenizer(source);
+            int k = 0;
+            while (tokens.next() && tokens.start() < start) k++;
+            tokens.resetToEnd(infix);
+            for (int i = 0; i <= k; i++) tokens.previous();
+            source = infix;
+            start = tokens.start();
+            end = tokens.end();
+            offset = start;
+        }
+
+        ConversionResult toResult() {
+            return ConversionResult.failure(code, source, start, end, offset);
         }
     }
 
-    private double calculate(String op, double a, double b) {
+    // lookup واحد لكل token بدل البحث في المصفوفات
+    private static SymbolTable.Symbol resolve(SymbolTable symbols, Tokenizer tokens) {
+        if (tokens.isNumber() && symbols.numericOperands()) return SymbolTable.NUMBER;
+        return symbols.lookup(tokens.source(), tokens.start(), tokens.end());
+    }
+
+    private static void appendToken(StringBuilder out, Tokenizer tokens) {
+        out.append(tokens.source(), tokens.start(), tokens.end()).append(' ');
+    }
+
+    private static IllegalArgumentException invalidToken(Tokenizer tokens) {
+        return new IllegalArgumentException("Invalid token: '" + tokens.text() + "'");
+    }
+
+    private static String trimLastSpace(StringBuilder out) {
+        if (out.length() > 0) out.setLength(out.length() - 1);
+        return out.toString();
+    }
+
+    private static double calculate(String op, double a, double b) {
         switch (op) {
             case "+": return a + b;
             case "-": return a - b;
@@ -205,24 +870,38 @@ public class Converter {
         }
     }
 
-    private String reverseInfix(String infix) {
-        StringBuilder reversed = new StringBuilder();
-        String[] tokens = infix.split(" ");
-        for (int i = tokens.length - 1; i >= 0; i--) {
-            String token = tokens[i];
-            if (token.equals("(")) reversed.append(") ");
-            else if (token.equals(")")) reversed.append("( ");
-            else reversed.append(token).append(" ");
+    // الـ tokens بالعكس في reversed (مسافة بعد كل token)، والأقواس تنقلب
+    private static void reverseInfix(CharSequence infix, Tokenizer tokens, StringBuilder reversed) {
+        tokens.resetToEnd(infix);
+        while (tokens.previous()) {
+            if (isChar(tokens, '(')) reversed.append(") ");
+            else if (isChar(tokens, ')')) reversed.append("( ");
+            else appendToken(reversed, tokens);
+        }
+    }
+
+    // tokens مكتوبة بمسافة وحدة بعد كل واحد (مثل نتيجة infixToPostfix)
+    private static void reverseTokens(StringBuilder tokens, StringBuilder reversed) {
+        int end = tokens.length() - 1;
+        while (end > 0) {
+            int start = tokens.lastIndexOf(" ", end - 1) + 1;
+            reversed.append(tokens, start, end).append(' ');
+            end = start - 1;
         }
-        return reversed.toString().trim();
     }
 
-    private String reverseExpression(String expr) {
-        StringBuilder reversed = new StringBuilder();
-        String[] tokens = expr.split(" ");
-        for (int i = tokens.length - 1; i >= 0; i--) {
-            reversed.append(tokens[i]).append(" ");
+    // متغير: يبدأ بحرف أو _ وبعدها حروف أو أرقام
+    private static boolean isIdentifier(Tokenizer tokens) {
+        CharSequence text = tokens.source();
+        if (!Character.isLetter(text.charAt(tokens.start())) && text.charAt(tokens.start()) != '_') return false;
+        for (int i = tokens.start() + 1; i < tokens.end(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') return false;
         }
-        return reversed.toString().trim();
+        return true;
+    }
+
+    private static boolean isChar(Tokenizer tokens, char c) {
+        return tokens.end() - tokens.start() == 1 && tokens.source().charAt(tokens.start()) == c;
     }
-}
\ No newline at end of file
+}
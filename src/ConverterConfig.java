@@ -0,0 +1,83 @@
+import java.util.Arrays;
+
+// إعدادات ثابتة (immutable): نقدر نشاركها بين threads بدون مشاكل
+public class ConverterConfig {
+    private static final ConverterConfig CONVENTIONAL = new ConverterConfig(false, new String[0],
+            new String[]{"+", "-", "*", "/", "^"}, new int[]{1, 1, 2, 2, 3}, SymbolTable.conventional());
+
+    private final boolean custom;
+    private final String[] operands;
+    private final String[] operators;
+    private final int[] priorities;
+    private final SymbolTable symbols;
+    private final long fingerprint;
+
+    private ConverterConfig(boolean custom, String[] operands, String[] operators, int[] priorities, SymbolTable symbols) {
+        this.custom = custom;
+        this.operands = operands;
+        this.operators = operators;
+        this.priorities = priorities;
+        this.symbols = symbols;
+        this.fingerprint = computeFingerprint();
+    }
+
+    public static ConverterConfig conventional() {
+        return CONVENTIONAL;
+    }
+
+    // ننسخ المصفوفات حتى ما يتغير شيء من برا
+    public static ConverterConfig custom(String[] operands, String[] operators, int[] priorities) {
+        if (operators.length != priorities.length) {
+            throw new IllegalArgumentException("Every operator needs exactly one priority");
+        }
+        String[] ops = operands.clone();
+        String[] customOps = operators.clone();
+        int[] customPrio = priorities.clone();
+        return new ConverterConfig(true, ops, customOps, customPrio, new SymbolTable(ops, customOps, customPrio));
+    }
+
+    // للـ GrammarSnapshot: المصفوفات والجدول جاهزين وما أحد ثاني عنده نسخة منهم
+    static ConverterConfig custom(String[] operands, String[] operators, int[] priorities, SymbolTable symbols) {
+        return new ConverterConfig(true, operands, operators, priorities, symbols);
+    }
+
+    public boolean isCustom() { return custom; }
+    public SymbolTable symbols() { return symbols; }
+    public String[] operands() { return operands.clone(); }
+    public String[] operators() { return operators.clone(); }
+    public int[] priorities() { return priorities.clone(); }
+
+    // hash لمحتوى القواعد: نفس اللغة والأسبقية = نفس الـ fingerprint (والعكس مش مضمون)
+    public long fingerprint() { return fingerprint; }
+
+    // نفس الملفات؟ (حتى ما نبني الجدول مرة ثانية)
+    public boolean sameGrammar(String[] operands, String[] operators, int[] priorities) {
+        return Arrays.equals(this.operands, operands)
+                && Arrays.equals(this.operators, operators)
+                && Arrays.equals(this.priorities, priorities);
+    }
+
+    // نفس القواعد بالضبط: الـ fingerprint يفرز بسرعة، بس hash ممكن يتصادم ("Aa" و "BB")
+    // فالمحتوى نفسه هو اللي يحكم
+    public boolean sameGrammar(ConverterConfig other) {
+        if (this == other) return true;
+        return other != null && custom == other.custom && fingerprint == other.fingerprint
+                && sameGrammar(other.operands, other.operators, other.priorities);
+    }
+
+    private long computeFingerprint() {
+        long hash = custom ? 1 : 0;
+        for (String operand : operands) hash = mix(hash, operand.hashCode());
+        hash = mix(hash, -1);
+        for (int i = 0; i < operators.length; i++) {
+            hash = mix(hash, operators[i].hashCode());
+            hash = mix(hash, priorities[i]);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,284 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// عدادات لكل عملية في الـ Converter. LongAdder حتى الـ threads ما تتزاحم على نفس العداد.
+// الـ Converter بدون metrics (الافتراضي) ما يسجل شيء.
+public class ConverterMetrics implements ConverterMetricsMBean {
+    public static final int INFIX_POSTFIX = 0;
+    public static final int INFIX_PREFIX = 1;
+    public static final int POSTFIX_INFIX = 2;
+    public static final int POSTFIX_PREFIX = 3;
+    public static final int PREFIX_INFIX = 4;
+    public static final int PREFIX_POSTFIX = 5;
+    public static final int EVALUATE_POSTFIX = 6;
+    public static final int EVALUATE_INFIX = 7;
+
+    public static final String[] OPERATIONS = {
+            "infix-postfix", "infix-prefix", "postfix-infix",
+            "postfix-prefix", "prefix-infix", "prefix-postfix", "evaluate-postfix", "evaluate-infix"
+    };
+
+    // bucket i = latency بين 2^i و 2^(i+1) nanoseconds
+    private static final int BUCKETS = 64;
+
+    private final Operation[] operations = new Operation[OPERATIONS.length];
+    private ObjectName registeredName;
+
+    public ConverterMetrics() {
+        for (int i = 0; i < operations.length; i++) operations[i] = new Operation();
+    }
+
+    private static class Operation {
+        final LongAdder calls = new LongAdder();
+        final LongAdder tokens = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+        final LongAdder[] latency = new LongAdder[BUCKETS];
+        final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        Operation() {
+            for (int i = 0; i < BUCKETS; i++) latency[i] = new LongAdder();
+        }
+
+        void reset() {
+            calls.reset();
+            tokens.reset();
+            nanos.reset();
+            maxDepth.reset();
+            for (LongAdder bucket : latency) bucket.reset();
+            errors.clear();
+        }
+    }
+
+    // قياس عملية وحدة: start() قبلها، ثم done() أو failed()
+    public class Sample {
+        private final int operation;
+        private final long startNanos;
+        int tokens;
+        int depth;
+
+        private Sample(int operation) {
+            this.operation = operation;
+            this.startNanos = System.nanoTime();
+        }
+
+        // يستدعيها الـ Converter قبل ما يرجع النتيجة
+        void count(int tokens, int depth) {
+            this.tokens += tokens;
+            this.depth = Math.max(this.depth, depth);
+        }
+
+        public void done() {
+            Operation stats = record();
+            stats.tokens.add(tokens);
+            stats.maxDepth.accumulate(depth);
+        }
+
+        // نرجع نفس الـ exception حتى نكتب: throw sample.failed(e)
+        public <E extends Exception> E failed(E e) {
+            failed(e.getClass().getSimpleName());
+            return e;
+        }
+
+        // للأخطاء اللي ترجع كنتيجة بدون exception (tryConvert)
+        public void failed(String errorType) {
+            record().errors.computeIfAbsent(errorType, k -> new LongAdder()).increment();
+        }
+
+        private Operation record() {
+            long elapsed = Math.max(System.nanoTime() - startNanos, 1);
+            Operation stats = operations[operation];
+            stats.calls.increment();
+            stats.nanos.add(elapsed);
+            stats.latency[63 - Long.numberOfLeadingZeros(elapsed)].increment();
+            return stats;
+        }
+    }
+
+    public Sample start(int operation) {
+        return new Sample(operation);
+    }
+
+    // نسخة ثابتة من العدادات (القيم ممكن تتغير بين قراءة عداد والثاني، بس كل رقم صحيح لحاله)
+    public Snapshot snapshot() {
+        Snapshot.Stats[] stats = new Snapshot.Stats[operations.length];
+        for (int i = 0; i < operations.length; i++) {
+            Operation operation = operations[i];
+            long[] histogram = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) histogram[b] = operation.latency[b].sum();
+            TreeMap<String, Long> errors = new TreeMap<>();
+            for (Map.Entry<String, LongAdder> error : operation.errors.entrySet()) {
+                errors.put(error.getKey(), error.getValue().sum());
+            }
+            stats[i] = new Snapshot.Stats(OPERATIONS[i], operation.calls.sum(), operation.tokens.sum(),
+                    operation.maxDepth.get(), operation.nanos.sum(), histogram, errors);
+        }
+        return new Snapshot(stats);
+    }
+
+    public static class Snapshot {
+        private final Stats[] stats;
+
+        Snapshot(Stats[] stats) {
+            this.stats = stats;
+        }
+
+        // operation: INFIX_POSTFIX ... EVALUATE_INFIX
+        public Stats get(int operation) {
+            return stats[operation];
+        }
+
+        public String summary() {
+            StringBuilder result = new StringBuilder();
+            for (Stats s : stats) {
+                if (s.calls == 0) continue;
+                result.append(String.format("%-16s %10d calls %8d errors %12d tokens  depth %6d  mean %9.1f us  p99 %9.1f us%n",
+                        s.operation, s.calls, s.errors(), s.tokens, s.maxDepth,
+                        s.meanNanos() / 1000, s.percentileNanos(99) / 1000.0));
+                for (Map.Entry<String, Long> error : s.errorsByType.entrySet()) {
+                    result.append("    ").append(error.getKey()).append(": ").append(error.getValue()).append('\n');
+                }
+            }
+            return result.toString();
+        }
+
+        public static class Stats {
+            public final String operation;
+            // calls تشمل الأخطاء
+            public final long calls;
+            public final long tokens;
+            public final long maxDepth;
+            public final long totalNanos;
+            public final long[] histogram;
+            public final Map<String, Long> errorsByType;
+
+            Stats(String operation, long calls, long tokens, long maxDepth, long totalNanos,
+                  long[] histogram, Map<String, Long> errorsByType) {
+                this.operation = operation;
+                this.calls = calls;
+                this.tokens = tokens;
+                this.maxDepth = maxDepth;
+                this.totalNanos = totalNanos;
+                this.histogram = histogram;
+                this.errorsByType = errorsByType;
+            }
+
+            public long errors() {
+                long total = 0;
+                for (long count : errorsByType.values()) total += count;
+                return total;
+            }
+
+            public double meanNanos() {
+                return calls == 0 ? 0 : (double) totalNanos / calls;
+            }
+
+            // تقريبي: الحد الأعلى للـ bucket اللي فيه النسبة المطلوبة
+            public long percentileNanos(double percent) {
+                long total = 0;
+                for (long count : histogram) total += count;
+                if (total == 0) return 0;
+                long rank = (long) Math.ceil(total * percent / 100);
+                long seen = 0;
+                for (int b = 0; b < histogram.length; b++) {
+                    seen += histogram[b];
+                    if (seen >= Math.max(rank, 1)) return b >= 62 ? Long.MAX_VALUE : 1L << (b + 1);
+                }
+                return Long.MAX_VALUE;
+            }
+        }
+    }
+
+    // تسجيل في الـ platform MBeanServer باسم notation-converter:type=ConverterMetrics,name=<name>
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName objectName = new ObjectName("notation-converter:type=ConverterMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        registeredName = objectName;
+        return objectName;
+    }
+
+    public synchronized void unregister() throws JMException {
+        if (registeredName == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(registeredName)) server.unregisterMBean(registeredName);
+        registeredName = null;
+    }
+
+    // ---- ConverterMetricsMBean ----
+
+    @Override
+    public String[] getOperations() {
+        return OPERATIONS.clone();
+    }
+
+    @Override
+    public long[] getCalls() {
+        long[] values = new long[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = operations[i].calls.sum();
+        return values;
+    }
+
+    @Override
+    public long[] getErrors() {
+        Snapshot snapshot = snapshot();
+        long[] values = new long[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = snapshot.get(i).errors();
+        return values;
+    }
+
+    @Override
+    public long[] getTokens() {
+        long[] values = new long[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = operations[i].tokens.sum();
+        return values;
+    }
+
+    @Override
+    public long[] getMaxStackDepth() {
+        long[] values = new long[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = operations[i].maxDepth.get();
+        return values;
+    }
+
+    @Override
+    public double[] getMeanLatencyMicros() {
+        Snapshot snapshot = snapshot();
+        double[] values = new double[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = snapshot.get(i).meanNanos() / 1000;
+        return values;
+    }
+
+    @Override
+    public double[] getP99LatencyMicros() {
+        Snapshot snapshot = snapshot();
+        double[] values = new double[operations.length];
+        for (int i = 0; i < values.length; i++) values[i] = snapshot.get(i).percentileNanos(99) / 1000.0;
+        return values;
+    }
+
+    @Override
+    public String[] getErrorCounts() {
+        Snapshot snapshot = snapshot();
+        ArrayList<String> values = new ArrayList<>();
+        for (int i = 0; i < operations.length; i++) {
+            for (Map.Entry<String, Long> error : snapshot.get(i).errorsByType.entrySet()) {
+                values.add(OPERATIONS[i] + " " + error.getKey() + "=" + error.getValue());
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+
+    @Override
+    public void reset() {
+        for (Operation operation : operations) operation.reset();
+    }
+}
@@ -0,0 +1,13 @@
+// ما يظهر في JConsole / VisualVM: مصفوفة لكل قيمة، بنفس ترتيب getOperations()
+public interface ConverterMetricsMBean {
+    String[] getOperations();
+    long[] getCalls();
+    long[] getErrors();
+    long[] getTokens();
+    long[] getMaxStackDepth();
+    double[] getMeanLatencyMicros();
+    double[] getP99LatencyMicros();
+    // "operation ExceptionType=count"
+    String[] getErrorCounts();
+    void reset();
+}
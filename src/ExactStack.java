@@ -0,0 +1,243 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+// stack للحساب الدقيق: القيمة long ما دامت عدد صحيح يكفيه 64 bit،
+// وإلا BigDecimal (دقيق)، و Double بس لما ما في نتيجة دقيقة (1 / 3، 2 ^ 0.5، NaN)
+public class ExactStack {
+    // أكبر عدد أرقام نسمح فيه للـ BigDecimal قبل ما ننزل لـ double (حتى 2 ^ 99999999 أو
+    // 1e99999999 + 1 ما ياكل الذاكرة). كل BigDecimal في الـ stack ضمن هذا الحد
+    private static final int MAX_DIGITS = 10000;
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+
+    private long[] longs;
+    // null = القيمة في longs؛ غير ذلك BigDecimal أو Double
+    private Number[] others;
+    private int top;
+    private int peak;
+
+    public ExactStack(int capacity) {
+        longs = new long[Math.max(capacity, 1)];
+        others = new Number[longs.length];
+        top = 0;
+    }
+
+    public void push(long value) {
+        if (top == longs.length) grow();
+        others[top] = null;
+        longs[top++] = value;
+        if (top > peak) peak = top;
+    }
+
+    public void push(Number value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            if (isLong(decimal)) {
+                push(decimal.longValueExact());
+                return;
+            }
+            if (digits(decimal) > MAX_DIGITS) value = decimal.doubleValue();
+        }
+        if (top == longs.length) grow();
+        others[top++] = value;
+        if (top > peak) peak = top;
+    }
+
+    // رقم من النص كما هو مكتوب (بدون تقريب double)
+    public void pushLiteral(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = text.charAt(i) == '-';
+        if (text.charAt(i) == '-' || text.charAt(i) == '+') i++;
+        if (end - i <= 18) {
+            long value = 0;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') break;
+                value = value * 10 + (c - '0');
+            }
+            if (i == end) {
+                push(negative ? -value : value);
+                return;
+            }
+        }
+        String literal = text.subSequence(start, end).toString();
+        if (literal.endsWith("NaN") || literal.endsWith("Infinity")) {
+            push((Number) Double.valueOf(literal));
+        } else {
+            BigDecimal decimal;
+            try {
+                decimal = new BigDecimal(literal);
+            } catch (NumberFormatException e) {
+                // الأس أكبر من int (1e-3000000000)
+                push((Number) Double.valueOf(literal));
+                return;
+            }
+            push((Number) decimal);
+        }
+    }
+
+    public Number pop() {
+        if (isEmpty()) throw new RuntimeException("Stack is empty");
+        top--;
+        Number value = others[top] != null ? others[top] : (Number) longs[top];
+        others[top] = null;
+        return value;
+    }
+
+    public void clear() {
+        Arrays.fill(others, 0, top, null);
+        top = 0;
+        peak = 0;
+    }
+
+    int capacity() { return longs.length; }
+
+    public boolean isEmpty() { return top == 0; }
+    public int size() { return top; }
+    public int peak() { return peak; }
+
+    // يطبق opcode (CompiledExpression) على آخر قيمتين؛ false = قسمة على صفر
+    public boolean apply(int op) {
+        int b = top - 1;
+        int a = top - 2;
+        if (others[a] == null && others[b] == null && applyLongs(op, longs[a], longs[b])) return true;
+        Number y = pop();
+        Number x = pop();
+        if (op == CompiledExpression.DIVIDE && isZero(y)) return false;
+        if (x instanceof Double || y instanceof Double) {
+            push((Number) CompiledExpression.apply(op, x.doubleValue(), y.doubleValue()));
+        } else {
+            push(applyDecimal(op, toDecimal(x), toDecimal(y)));
+        }
+        return true;
+    }
+
+    // المسار السريع؛ false إذا النتيجة ما تنفع long (تجاوز أو كسر أو قسمة على صفر)
+    private boolean applyLongs(int op, long x, long y) {
+        long result;
+        switch (op) {
+            case CompiledExpression.ADD:
+                result = x + y;
+                if (((x ^ result) & (y ^ result)) < 0) return false;
+                break;
+            case CompiledExpression.SUBTRACT:
+                result = x - y;
+                if (((x ^ y) & (x ^ result)) < 0) return false;
+                break;
+            case CompiledExpression.MULTIPLY:
+                result = x * y;
+                if (Math.multiplyHigh(x, y) != (result >> 63)) return false;
+                break;
+            case CompiledExpression.DIVIDE:
+                if (y == 0 || x % y != 0 || (x == Long.MIN_VALUE && y == -1)) return false;
+                result = x / y;
+                break;
+            default:
+                if (y < 0) return false;
+                result = 1;
+                long base = x;
+                // exponentiation by squaring
+                while (y > 0) {
+                    if ((y & 1) != 0) {
+                        long next = result * base;
+                        if (Math.multiplyHigh(result, base) != (next >> 63)) return false;
+                        result = next;
+                    }
+                    y >>= 1;
+                    if (y > 0) {
+                        long square = base * base;
+                        if (Math.multiplyHigh(base, base) != (square >> 63)) return false;
+                        base = square;
+                    }
+                }
+        }
+        top--;
+        longs[top - 1] = result;
+        return true;
+    }
+
+    private static Number applyDecimal(int op, BigDecimal x, BigDecimal y) {
+        if (op != CompiledExpression.DIVIDE && op != CompiledExpression.POWER && digits(op, x, y) > MAX_DIGITS) {
+            return CompiledExpression.apply(op, x.doubleValue(), y.doubleValue());
+        }
+        switch (op) {
+            case CompiledExpression.ADD: return x.add(y);
+            case CompiledExpression.SUBTRACT: return x.subtract(y);
+            case CompiledExpression.MULTIPLY: return x.multiply(y);
+            case CompiledExpression.DIVIDE:
+                if (terminates(x, y)) return x.divide(y);
+                return x.doubleValue() / y.doubleValue();
+            default:
+                return power(x, y);
+        }
+    }
+
+    private static Number power(BigDecimal x, BigDecimal y) {
+        if (!isLong(y) || Math.abs(y.longValue()) > 999999999) {
+            return Math.pow(x.doubleValue(), y.doubleValue());
+        }
+        int exponent = (int) y.longValue();
+        long digits = (long) Math.max(x.precision(), Math.abs(x.scale())) * Math.abs(exponent);
+        if (digits > MAX_DIGITS) return Math.pow(x.doubleValue(), y.doubleValue());
+        BigDecimal magnitude = x.pow(Math.abs(exponent));
+        if (exponent >= 0) return magnitude;
+        if (magnitude.signum() == 0 || !terminates(BigDecimal.ONE, magnitude)) {
+            return Math.pow(x.doubleValue(), y.doubleValue());
+        }
+        return BigDecimal.ONE.divide(magnitude);
+    }
+
+    // طول النتيجة مكتوبة كاملة (toPlainString) قبل ما نحسبها؛ + و - يحاذون الـ scale
+    private static long digits(int op, BigDecimal x, BigDecimal y) {
+        long high;
+        long low;
+        if (op == CompiledExpression.MULTIPLY) {
+            high = (long) x.precision() - x.scale() + y.precision() - y.scale();
+            low = -((long) x.scale() + y.scale());
+        } else {
+            high = Math.max((long) x.precision() - x.scale(), (long) y.precision() - y.scale()) + 1;
+            low = Math.min(-(long) x.scale(), -(long) y.scale());
+        }
+        return Math.max(high, 0) - Math.min(low, 0);
+    }
+
+    private static long digits(BigDecimal value) {
+        long high = (long) value.precision() - value.scale();
+        return Math.max(high, 0) - Math.min(-(long) value.scale(), 0);
+    }
+
+    // x / y عدد عشري منتهي؟ (المقام بعد الاختصار ما فيه غير 2 و 5)
+    private static boolean terminates(BigDecimal x, BigDecimal y) {
+        BigInteger numerator = x.unscaledValue();
+        BigInteger denominator = y.unscaledValue().abs();
+        denominator = denominator.divide(numerator.gcd(denominator).max(BigInteger.ONE));
+        int twos = denominator.getLowestSetBit();
+        if (twos > 0) denominator = denominator.shiftRight(twos);
+        while (denominator.signum() != 0 && denominator.mod(FIVE).signum() == 0) {
+            denominator = denominator.divide(FIVE);
+        }
+        return denominator.equals(BigInteger.ONE);
+    }
+
+    private static BigDecimal toDecimal(Number value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : BigDecimal.valueOf(value.longValue());
+    }
+
+    private static boolean isZero(Number value) {
+        if (value instanceof BigDecimal) return ((BigDecimal) value).signum() == 0;
+        return value.doubleValue() == 0;
+    }
+
+    // عدد صحيح يدخل في long (بدون ما نبني BigInteger ضخم لـ 1e100000)
+    private static boolean isLong(BigDecimal value) {
+        if (value.signum() == 0) return true;
+        if ((long) value.precision() - value.scale() > 19) return false;
+        if (value.scale() > 0 && value.stripTrailingZeros().scale() > 0) return false;
+        return value.toBigInteger().bitLength() < 64;
+    }
+
+    private void grow() {
+        longs = Arrays.copyOf(longs, longs.length * 2);
+        others = Arrays.copyOf(others, longs.length);
+    }
+}
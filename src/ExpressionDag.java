@@ -0,0 +1,222 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+// التعبير كـ DAG: الثوابت مطوية (2 3 * يصير 6) وكل تعبير فرعي مكرر node واحد
+// فيتحسب مرة واحدة بس. الـ nodes مرتبة بحيث الأبناء قبل الأب، والجذر آخر واحد.
+public class ExpressionDag {
+    // نفس opcodes الـ CompiledExpression
+    private final int[] op;
+    private final int[] left;
+    private final int[] right;
+    // CONSTANT: القيمة؛ VARIABLE: رقم المتغير في variables
+    private final double[] value;
+    private final int[] variable;
+    // نص الثابت كما كان في المدخل (null للثوابت المطوية)
+    private final String[] text;
+    private final String[] variables;
+    private final int inputNodes;
+    private final int folded;
+    private final int shared;
+
+    private ExpressionDag(int[] op, int[] left, int[] right, double[] value, int[] variable, String[] text,
+                          String[] variables, int inputNodes, int folded, int shared) {
+        this.op = op;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+        this.variable = variable;
+        this.text = text;
+        this.variables = variables;
+        this.inputNodes = inputNodes;
+        this.folded = folded;
+        this.shared = shared;
+    }
+
+    // عدد الـ tokens في التعبير الأصلي
+    public int inputNodes() { return inputNodes; }
+    // عدد الـ nodes بعد التحسين (كل واحد يتحسب مرة في evaluate)
+    public int nodes() { return op.length; }
+    // مشغلات صارت ثوابت
+    public int folded() { return folded; }
+    // تعبيرات فرعية لقيناها قبل واستخدمنا نفس الـ node
+    public int shared() { return shared; }
+    public int eliminated() { return inputNodes - op.length; }
+
+    public String[] variables() {
+        return variables.clone();
+    }
+
+    public double evaluate(double... values) {
+        if (values.length != variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " variable values, got " + values.length);
+        }
+        double[] results = new double[op.length];
+        for (int i = 0; i < op.length; i++) {
+            switch (op[i]) {
+                case CompiledExpression.CONSTANT: results[i] = value[i]; break;
+                case CompiledExpression.VARIABLE: results[i] = values[variable[i]]; break;
+                default: results[i] = CompiledExpression.apply(op[i], results[left[i]], results[right[i]]);
+            }
+        }
+        return results[op.length - 1];
+    }
+
+    // postfix ما يقدر يعبر عن المشاركة، فالتعبير المكرر ينكتب في كل مكان
+    public String toPostfix() {
+        StringBuilder out = new StringBuilder(op.length * 4);
+        // node * 2 + (1 إذا الأبناء انكتبوا)
+        IntStack pending = new IntStack(64);
+        pending.push((op.length - 1) * 2);
+        while (!pending.isEmpty()) {
+            int entry = pending.pop();
+            int node = entry >> 1;
+            if (op[node] == CompiledExpression.CONSTANT) {
+                out.append(text[node] != null ? text[node] : format(value[node])).append(' ');
+            } else if (op[node] == CompiledExpression.VARIABLE) {
+                out.append(variables[variable[node]]).append(' ');
+            } else if ((entry & 1) == 1) {
+                out.append(OPERATORS[op[node]]).append(' ');
+            } else {
+                pending.push(entry | 1);
+                pending.push(right[node] * 2);
+                pending.push(left[node] * 2);
+            }
+        }
+        out.setLength(out.length() - 1);
+        return out.toString();
+    }
+
+    private static final String[] OPERATORS = {null, null, "+", "-", "*", "/", "^"};
+
+    // 6.0 تنكتب 6 حتى تبقى مثل الأرقام في المدخل
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15 && !(value == 0 && 1 / value < 0)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    // يبني الـ DAG أثناء قراءة الـ postfix (من Converter)
+    static class Builder {
+        private int[] op = new int[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private double[] value = new double[16];
+        private int[] variable = new int[16];
+        private String[] text = new String[16];
+        private int count;
+        private int inputNodes;
+        private int folded;
+        private int shared;
+        // hash-consing: نفس المفتاح = نفس الـ node
+        private final HashMap<Long, Integer> constants = new HashMap<>();
+        private final HashMap<Long, Integer> operators = new HashMap<>();
+        private final HashMap<String, Integer> variableNodes = new HashMap<>();
+
+        int constant(double number, String token) {
+            inputNodes++;
+            Integer existing = constants.get(Double.doubleToLongBits(number));
+            if (existing != null) {
+                shared++;
+                return existing;
+            }
+            int node = add(CompiledExpression.CONSTANT, -1, -1);
+            value[node] = number;
+            text[node] = token;
+            constants.put(Double.doubleToLongBits(number), node);
+            return node;
+        }
+
+        int variable(String name) {
+            inputNodes++;
+            Integer existing = variableNodes.get(name);
+            if (existing != null) {
+                shared++;
+                return existing;
+            }
+            int node = add(CompiledExpression.VARIABLE, -1, -1);
+            variable[node] = variableNodes.size();
+            variableNodes.put(name, node);
+            return node;
+        }
+
+        int operator(int opcode, int a, int b) {
+            inputNodes++;
+            if (op[a] == CompiledExpression.CONSTANT && op[b] == CompiledExpression.CONSTANT) {
+                try {
+                    double result = CompiledExpression.apply(opcode, value[a], value[b]);
+                    folded++;
+                    Integer existing = constants.get(Double.doubleToLongBits(result));
+                    if (existing != null) return existing;
+                    int node = add(CompiledExpression.CONSTANT, -1, -1);
+                    value[node] = result;
+                    constants.put(Double.doubleToLongBits(result), node);
+                    return node;
+                } catch (ArithmeticException e) {
+                    // القسمة على صفر تبقى في التعبير وترمي وقت evaluate مثل قبل
+                }
+            }
+            long key = ((long) opcode << 60) | ((long) a << 30) | b;
+            Integer existing = operators.get(key);
+            if (existing != null) {
+                shared++;
+                return existing;
+            }
+            int node = add(opcode, a, b);
+            operators.put(key, node);
+            return node;
+        }
+
+        // نشيل الـ nodes اللي ما يوصل لها الجذر (بقايا الطي) ونرقم الباقي بنفس الترتيب
+        ExpressionDag build(int root) {
+            boolean[] used = new boolean[count];
+            used[root] = true;
+            for (int i = root; i >= 0; i--) {
+                if (used[i] && left[i] >= 0) {
+                    used[left[i]] = true;
+                    used[right[i]] = true;
+                }
+            }
+            int[] index = new int[count];
+            int n = 0;
+            for (int i = 0; i <= root; i++) if (used[i]) index[i] = n++;
+
+            int[] newOp = new int[n];
+            int[] newLeft = new int[n];
+            int[] newRight = new int[n];
+            double[] newValue = new double[n];
+            int[] newVariable = new int[n];
+            String[] newText = new String[n];
+            for (int i = 0; i <= root; i++) {
+                if (!used[i]) continue;
+                int j = index[i];
+                newOp[j] = op[i];
+                newLeft[j] = left[i] < 0 ? -1 : index[left[i]];
+                newRight[j] = right[i] < 0 ? -1 : index[right[i]];
+                newValue[j] = value[i];
+                newVariable[j] = variable[i];
+                newText[j] = text[i];
+            }
+            String[] names = new String[variableNodes.size()];
+            for (String name : variableNodes.keySet()) names[variable[variableNodes.get(name)]] = name;
+            return new ExpressionDag(newOp, newLeft, newRight, newValue, newVariable, newText,
+                    names, inputNodes, folded, shared);
+        }
+
+        private int add(int opcode, int a, int b) {
+            if (count == op.length) {
+                int capacity = count * 2;
+                op = Arrays.copyOf(op, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                value = Arrays.copyOf(value, capacity);
+                variable = Arrays.copyOf(variable, capacity);
+                text = Arrays.copyOf(text, capacity);
+            }
+            op[count] = opcode;
+            left[count] = a;
+            right[count] = b;
+            return count++;
+        }
+    }
+}
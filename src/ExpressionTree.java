@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+// شجرة التعبير كمصفوفات: كل node هو token في النص الأصلي
+public class ExpressionTree {
+    private CharSequence source;
+    private int[] tokenStart;
+    private int[] tokenEnd;
+    private int[] left;
+    private int[] right;
+    private int count;
+
+    public ExpressionTree(CharSequence source, int capacity) {
+        this.source = source;
+        capacity = Math.max(capacity, 1);
+        tokenStart = new int[capacity];
+        tokenEnd = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        count = 0;
+    }
+
+    // شجرة فاضية لنص جديد بنفس المصفوفات (ما ننسخ القديم لو لازم نكبر)
+    void reset(CharSequence source, int capacity) {
+        this.source = source;
+        count = 0;
+        if (capacity > tokenStart.length) {
+            tokenStart = new int[capacity];
+            tokenEnd = new int[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+        }
+    }
+
+    int capacity() { return tokenStart.length; }
+
+    public int addLeaf(int start, int end) {
+        return addNode(start, end, -1, -1);
+    }
+
+    public int addNode(int start, int end, int leftChild, int rightChild) {
+        if (count == tokenStart.length) grow();
+        tokenStart[count] = start;
+        tokenEnd[count] = end;
+        left[count] = leftChild;
+        right[count] = rightChild;
+        return count++;
+    }
+
+    public int size() { return count; }
+
+    // الجذر دائماً آخر node (آخر token في postfix أو أول token في prefix)
+    public int root() { return count - 1; }
+
+    // الـ append* تكتب في out (مسافة بعد كل token) بـ stacks من برا، انظر ConversionContext.
+    // preorder بدون recursion حتى يشتغل مع التعبيرات العميقة
+    void appendPrefix(StringBuilder out, IntStack pending) {
+        pending.clear();
+        pending.push(root());
+        while (!pending.isEmpty()) {
+            int node = pending.pop();
+            append(out, node);
+            if (left[node] >= 0) {
+                pending.push(right[node]);
+                pending.push(left[node]);
+            }
+        }
+    }
+
+    // postorder = عكس (node, right, left)
+    void appendPostfix(StringBuilder out, IntStack pending, IntStack order) {
+        pending.clear();
+        order.clear();
+        pending.push(root());
+        while (!pending.isEmpty()) {
+            int node = pending.pop();
+            order.push(node);
+            if (left[node] >= 0) {
+                pending.push(left[node]);
+                pending.push(right[node]);
+            }
+        }
+        while (!order.isEmpty()) append(out, order.pop());
+    }
+
+    // infix كامل الأقواس: ( left op right )
+    void appendInfix(StringBuilder out, IntStack pending) {
+        // كل عنصر في الـ stack هو node * 3 + المرحلة
+        pending.clear();
+        pending.push(root() * 3);
+        while (!pending.isEmpty()) {
+            int entry = pending.pop();
+            int node = entry / 3;
+            switch (entry % 3) {
+                case 0:
+                    if (left[node] < 0) {
+                        append(out, node);
+                    } else {
+                        out.append("( ");
+                        pending.push(node * 3 + 1);
+                        pending.push(left[node] * 3);
+                    }
+                    break;
+                case 1:
+                    append(out, node);
+                    pending.push(node * 3 + 2);
+                    pending.push(right[node] * 3);
+                    break;
+                default:
+                    out.append(") ");
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = tokenStart.length * 2;
+        tokenStart = Arrays.copyOf(tokenStart, capacity);
+        tokenEnd = Arrays.copyOf(tokenEnd, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+    }
+
+    private void append(StringBuilder out, int node) {
+        out.append(source, tokenStart[node], tokenEnd[node]).append(' ');
+    }
+}
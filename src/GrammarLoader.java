@@ -0,0 +1,97 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// قراءة ملفات اللغة والأسبقية في مرور واحد (برا الواجهة حتى يستخدمها Main و BatchMain)
+public class GrammarLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // محتوى ملف الأسبقية
+    public static class Precedence {
+        public final String[] operators;
+        public final int[] priorities;
+
+        Precedence(String[] operators, int[] priorities) {
+            this.operators = operators;
+            this.priorities = priorities;
+        }
+
+        // الأولويات بترتيب ظهورها مع المشغلات اللي لها
+        public String summary() {
+            LinkedHashMap<Integer, StringBuilder> groups = new LinkedHashMap<>();
+            for (int i = 0; i < operators.length; i++) {
+                groups.computeIfAbsent(priorities[i], p -> new StringBuilder()).append(' ').append(operators[i]);
+            }
+            StringBuilder result = new StringBuilder("Precedence file loaded successfully!");
+            for (Map.Entry<Integer, StringBuilder> group : groups.entrySet()) {
+                result.append("\n  Priority ").append(group.getKey()).append(":").append(group.getValue());
+            }
+            return result.toString();
+        }
+    }
+
+    private GrammarLoader() {
+    }
+
+    // كل كلمة في الملف معامل (operand)
+    public static String[] loadLanguage(Path file) throws IOException {
+        ArrayList<String> operands = new ArrayList<>();
+        try (BufferedReader reader = newReader(file)) {
+            Tokenizer tokens = new Tokenizer("");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                tokens.reset(line);
+                while (tokens.next()) operands.add(tokens.text());
+            }
+        }
+        return operands.toArray(new String[0]);
+    }
+
+    // كل سطر: مشغل أو أكثر ثم الأولوية في الآخر
+    public static Precedence loadPrecedence(Path file) throws IOException {
+        ArrayList<String> operators = new ArrayList<>();
+        IntStack priorities = new IntStack(16);
+        ArrayList<String> parts = new ArrayList<>();
+        try (BufferedReader reader = newReader(file)) {
+            Tokenizer tokens = new Tokenizer("");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parts.clear();
+                tokens.reset(line);
+                while (tokens.next()) parts.add(tokens.text());
+                if (parts.size() < 2) continue;
+
+                String lastPart = parts.get(parts.size() - 1);
+                int priority;
+                try {
+                    priority = Integer.parseInt(lastPart);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Priority must be a number. Found: '" + lastPart + "'");
+                }
+                for (int i = 0; i < parts.size() - 1; i++) {
+                    operators.add(parts.get(i));
+                    priorities.push(priority);
+                }
+            }
+        }
+        if (operators.isEmpty()) {
+            throw new IllegalArgumentException("No valid operators found in the file");
+        }
+        return new Precedence(operators.toArray(new String[0]), priorities.toArray());
+    }
+
+    public static ConverterConfig load(Path language, Path precedence) throws IOException {
+        String[] operands = loadLanguage(language);
+        Precedence loaded = loadPrecedence(precedence);
+        return ConverterConfig.custom(operands, loaded.operators, loaded.priorities);
+    }
+
+    private static BufferedReader newReader(Path file) throws IOException {
+        return new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/*
+ * ملف binary فيه القواعد المخصصة جاهزة (بدل قراءة ملفات النص وبناء الجدول كل مرة).
+ *
+ * Layout (big-endian):
+ *   header   int magic "NCGS", int version, int operandCount, int operatorCount,
+ *            int stringCount, int tableCapacity, int tableEntries, int poolBytes,
+ *            long CRC32 of everything after the header
+ *   payload  int[stringCount]      end offset of every string in the pool
+ *            int[operandCount]     operands (string index)
+ *            int[operandCount]     slot of every operand in the symbol table
+ *            int[operatorCount]    operators (string index)
+ *            int[operatorCount]    priorities
+ *            int[tableEntries * 4] other symbols: slot, string index, kind, priority
+ *            byte[poolBytes]       UTF-8 strings, each distinct string stored once
+ */
+public class GrammarSnapshot {
+    private static final int MAGIC = 0x4E434753;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8 * 4 + 8;
+
+    private GrammarSnapshot() {
+    }
+
+    public static void write(ConverterConfig config, Path file) throws IOException {
+        if (!config.isCustom()) {
+            throw new IllegalArgumentException("Only custom grammars can be saved");
+        }
+        String[] operands = config.operands();
+        String[] operators = config.operators();
+        int[] priorities = config.priorities();
+        SymbolTable symbols = config.symbols();
+
+        // intern: كل نص مرة وحدة في الـ pool
+        HashMap<String, Integer> indexes = new HashMap<>();
+        StringPool pool = new StringPool();
+        int[] operandIndexes = new int[operands.length];
+        for (int i = 0; i < operands.length; i++) operandIndexes[i] = pool.index(indexes, operands[i]);
+        int[] operatorIndexes = new int[operators.length];
+        for (int i = 0; i < operators.length; i++) operatorIndexes[i] = pool.index(indexes, operators[i]);
+
+        // المعاملات (أغلب الجدول) نحفظ لها الـ slot بس، والباقي (مشغلات وأقواس) كامل
+        HashMap<String, Integer> operandSlots = new HashMap<>();
+        IntStack table = new IntStack(64);
+        for (int slot = 0; slot < symbols.capacity(); slot++) {
+            SymbolTable.Symbol symbol = symbols.slotAt(slot);
+            if (symbol == null) continue;
+            if (symbol.kind == SymbolTable.OPERAND) {
+                operandSlots.put(symbol.text, slot);
+                continue;
+            }
+            table.push(slot);
+            table.push(pool.index(indexes, symbol.text));
+            table.push(symbol.kind);
+            table.push(symbol.priority);
+        }
+        int[] slots = new int[operands.length];
+        for (int i = 0; i < operands.length; i++) slots[i] = operandSlots.get(operands[i]);
+
+        int[] ends = pool.ends.toArray();
+        byte[] bytes = pool.bytes.toByteArray();
+        int[] tableData = table.toArray();
+        int payloadBytes = 4 * (ends.length + 2 * operands.length + 2 * operators.length + tableData.length) + bytes.length;
+
+        ByteBuffer payload = ByteBuffer.allocate(payloadBytes);
+        putInts(payload, ends);
+        putInts(payload, operandIndexes);
+        putInts(payload, slots);
+        putInts(payload, operatorIndexes);
+        putInts(payload, priorities);
+        putInts(payload, tableData);
+        payload.put(bytes);
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putInt(operands.length).putInt(operators.length).putInt(ends.length)
+                .putInt(symbols.capacity()).putInt(tableData.length / 4).putInt(bytes.length)
+                .putLong(crc.getValue());
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (payload.hasRemaining()) channel.write(payload);
+        }
+    }
+
+    public static ConverterConfig read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a grammar snapshot: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a grammar snapshot: " + file);
+            int version = buffer.getInt();
+            if (version != VERSION) throw new IOException("Unsupported grammar snapshot version " + version);
+            int operandCount = buffer.getInt();
+            int operatorCount = buffer.getInt();
+            int stringCount = buffer.getInt();
+            int capacity = buffer.getInt();
+            int tableEntries = buffer.getInt();
+            int poolBytes = buffer.getInt();
+            long checksum = buffer.getLong();
+
+            long expected = HEADER_BYTES + 4L * (stringCount + 2L * operandCount + 2L * operatorCount + 4L * tableEntries) + poolBytes;
+            if (operandCount < 0 || operatorCount < 0 || stringCount < 0 || tableEntries < 0 || poolBytes < 0
+                    || expected != size || Integer.bitCount(capacity) != 1 || tableEntries > capacity) {
+                throw new IOException("Corrupt grammar snapshot: " + file);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != checksum) throw new IOException("Grammar snapshot checksum mismatch: " + file);
+
+            int[] ends = getInts(buffer, stringCount);
+            int[] operandIndexes = getInts(buffer, operandCount);
+            int[] slots = getInts(buffer, operandCount);
+            int[] operatorIndexes = getInts(buffer, operatorCount);
+            int[] priorities = getInts(buffer, operatorCount);
+            int[] table = getInts(buffer, tableEntries * 4);
+            byte[] bytes = new byte[poolBytes];
+            buffer.get(bytes);
+
+            String[] strings = new String[stringCount];
+            int start = 0;
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = new String(bytes, start, ends[i] - start, StandardCharsets.UTF_8);
+                start = ends[i];
+            }
+
+            String[] operands = new String[operandCount];
+            for (int i = 0; i < operandCount; i++) operands[i] = strings[operandIndexes[i]];
+            String[] operators = new String[operatorCount];
+            for (int i = 0; i < operatorCount; i++) operators[i] = strings[operatorIndexes[i]];
+
+            String[] keys = new String[capacity];
+            SymbolTable.Symbol[] values = new SymbolTable.Symbol[capacity];
+            for (int i = 0; i < operandCount; i++) {
+                keys[slots[i]] = operands[i];
+                values[slots[i]] = new SymbolTable.Symbol(operands[i], SymbolTable.OPERAND, 0);
+            }
+            for (int i = 0; i < table.length; i += 4) {
+                String text = strings[table[i + 1]];
+                keys[table[i]] = text;
+                values[table[i]] = new SymbolTable.Symbol(text, table[i + 2], table[i + 3]);
+            }
+            return ConverterConfig.custom(operands, operators, priorities, new SymbolTable(keys, values, false));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt grammar snapshot: " + file);
+        }
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    private static class StringPool {
+        final IntStack ends = new IntStack(64);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        int index(HashMap<String, Integer> indexes, String text) {
+            Integer index = indexes.get(text);
+            if (index != null) return index;
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            bytes.write(utf8, 0, utf8.length);
+            ends.push(bytes.size());
+            indexes.put(text, ends.size() - 1);
+            return ends.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+// يراقب ملفات اللغة والأسبقية؛ إذا تغيرت يقرأها من جديد ويبدل الإعدادات مرة وحدة
+public class GrammarWatcher implements AutoCloseable {
+    // المحررات تكتب الملف على أكثر من خطوة، فننتظر قليلاً قبل القراءة
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path language;
+    private final Path precedence;
+    private final Consumer<ConverterConfig> onReload;
+    private final Consumer<Exception> onError;
+    private final WatchService watchService;
+    private final Thread thread;
+    // بعد close أي خطأ من reload سببه الإغلاق نفسه (interrupt)، مش الملفات
+    private volatile boolean closed;
+
+    // onReload مثلاً converter::setConfig (التبديل atomic لأن الإعدادات immutable)
+    public GrammarWatcher(Path language, Path precedence,
+                          Consumer<ConverterConfig> onReload, Consumer<Exception> onError) throws IOException {
+        this.language = language.toAbsolutePath();
+        this.precedence = precedence.toAbsolutePath();
+        this.onReload = onReload;
+        this.onError = onError;
+        watchService = FileSystems.getDefault().newWatchService();
+        register(this.language.getParent());
+        if (!this.precedence.getParent().equals(this.language.getParent())) {
+            register(this.precedence.getParent());
+        }
+        thread = new Thread(this::watch, "grammar-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void register(Path directory) throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                if (!changed) continue;
+
+                // نجمع كل الأحداث اللي تجي ورا بعض ونقرأ مرة وحدة
+                Thread.sleep(SETTLE_MILLIS);
+                while ((key = watchService.poll()) != null) drain(key);
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (file.equals(language) || file.equals(precedence)) changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        ConverterConfig config;
+        try {
+            config = GrammarLoader.load(language, precedence);
+        } catch (CancellationException e) {
+            // Tokenizer لاحظ الـ interrupt
+            if (closed || Thread.currentThread().isInterrupted()) return;
+            throw e;
+        } catch (IOException | IllegalArgumentException e) {
+            // ClosedByInterruptException وغيره بعد close: ما في شي نبلغ عنه
+            if (closed || Thread.currentThread().isInterrupted()) return;
+            // نخلي الإعدادات القديمة شغالة
+            onError.accept(e);
+            return;
+        }
+        if (!closed) onReload.accept(config);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        watchService.close();
+    }
+}
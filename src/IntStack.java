@@ -0,0 +1,44 @@
+import java.util.Arrays;
+
+public class IntStack {
+    private int[] items;
+    private int top;
+    private int peak;
+
+    public IntStack(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+        top = 0;
+    }
+
+    public void push(int item) {
+        if (top == items.length) items = Arrays.copyOf(items, items.length * 2);
+        items[top++] = item;
+        if (top > peak) peak = top;
+    }
+
+    public int pop() {
+        if (isEmpty()) throw new RuntimeException("Stack is empty");
+        return items[--top];
+    }
+
+    public int peek() {
+        if (isEmpty()) throw new RuntimeException("Stack is empty");
+        return items[top - 1];
+    }
+
+    public boolean isEmpty() { return top == 0; }
+    public int size() { return top; }
+    // أكبر حجم وصل له
+    public int peak() { return peak; }
+    // يرجع فاضي كأنه جديد (peak كمان) حتى ينعاد استخدامه، انظر ConversionContext
+    public void clear() {
+        top = 0;
+        peak = 0;
+    }
+
+    int capacity() { return items.length; }
+
+    public int[] toArray() {
+        return Arrays.copyOf(items, top);
+    }
+}
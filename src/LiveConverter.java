@@ -0,0 +1,399 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+// infix → postfix أثناء الكتابة. بعد كل تعديل نقطع من جديد الـ tokens اللي حول المكان
+// المعدل بس، ونكمل shunting-yard من آخر checkpoint قبله. أول ما الحالة (stack المشغلات
+// والأرقام وأول خطأ) ترجع مثل checkpoint قديم، الباقي من الـ postfix هو نفسه فنلصقه بدل
+// ما نحسبه. الـ stacks هنا linked و immutable، فالـ checkpoint مجرد مؤشر، والمقارنة تقف
+// عند أول node مشترك. النتيجة نفس infixToPostfix، والقيمة نفس evaluateInfix.
+// مش thread-safe (الواجهة تستخدمه من الـ FX thread بس)
+public class LiveConverter {
+    // كل كم token نحفظ checkpoint: تعديل صغير يكلف تقريباً هذا العدد من الـ tokens
+    private static final int CHECKPOINT_INTERVAL = 256;
+
+    private static final ConversionResult INVALID_POSTFIX =
+            ConversionResult.failure(ConversionResult.INVALID_POSTFIX, null, 0, 0, -1);
+    private static final ConversionResult DIVISION_BY_ZERO =
+            ConversionResult.failure(ConversionResult.DIVISION_BY_ZERO, null, 0, 0, -1);
+
+    // يستقبل التعديل على النص المعروض (مثل TextArea.replaceText)
+    public interface Display {
+        void replace(int start, int end, String text);
+    }
+
+    // node في stack ما يتغير: push ينشئ node جديد والقديم يبقى صالح للـ checkpoints.
+    // stack المشغلات يستخدم symbol، و stack الأرقام يستخدم value
+    private static final class Node {
+        final Node next;
+        final int size;
+        final SymbolTable.Symbol symbol;
+        final double value;
+
+        Node(Node next, SymbolTable.Symbol symbol, double value) {
+            this.next = next;
+            this.size = next == null ? 1 : next.size + 1;
+            this.symbol = symbol;
+            this.value = value;
+        }
+    }
+
+    // الحالة قبل token رقم token؛ body = طول الـ postfix المكتوب لهنا
+    private static final class Checkpoint {
+        int token;
+        int body;
+        final Node operators;
+        final Node values;
+        final ConversionResult error;
+
+        Checkpoint(int token, int body, Node operators, Node values, ConversionResult error) {
+            this.token = token;
+            this.body = body;
+            this.operators = operators;
+            this.values = values;
+            this.error = error;
+        }
+    }
+
+    private final SymbolTable symbols;
+    private final boolean evaluate;
+    private final Tokenizer scanner = new Tokenizer("");
+
+    private CharSequence text = "";
+    private int count;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private SymbolTable.Symbol[] kinds = new SymbolTable.Symbol[64];
+    private double[] numbers = new double[64];
+
+    private Checkpoint[] checkpoints = new Checkpoint[16];
+    private int checkpointCount;
+
+    // الـ postfix = body + tail (المشغلات اللي باقية في الـ stack آخر شي)
+    private final StringBuilder body = new StringBuilder();
+    // اللي انكتب من أول checkpoint التشغيل الحالي (bodyStart)
+    private final StringBuilder middle = new StringBuilder();
+    private int bodyStart;
+    private String tail = "";
+
+    // الحالة أثناء التشغيل، وبعده = الحالة بعد آخر token
+    private Node operators;
+    private Node values;
+    private ConversionResult error;
+    // أول token غلط (التحويل يوقف عنده)، أو -1
+    private int invalid = -1;
+    private ConversionResult result;
+
+    // التقييم بس في الوضع العادي، مثل evaluateInfix
+    public LiveConverter(ConverterConfig config) {
+        this.symbols = config.symbols();
+        this.evaluate = !config.isCustom();
+    }
+
+    // تحويل كامل للنص؛ يرجع الـ postfix
+    public String reset(CharSequence text) {
+        this.text = text;
+        count = 0;
+        scanner.reset(text);
+        while (scanner.next()) {
+            ensureCapacity(count + 1);
+            store(count++);
+        }
+        checkpointCount = 0;
+        addCheckpoint(new Checkpoint(0, 0, null, null, null));
+        body.setLength(0);
+        run(0, null);
+        finish();
+        return output();
+    }
+
+    // النص الجديد بعد تعديل واحد: [start, oldEnd) في النص القديم صار [start, newEnd).
+    // display ياخذ التعديل على الـ postfix المعروض (اللي كان output() قبل الاستدعاء)
+    public void edit(CharSequence text, int start, int oldEnd, int newEnd, Display display) {
+        this.text = text;
+        int delta = newEnd - oldEnd;
+
+        // الـ tokens اللي تلمس المدى المعدل (اللي جنبه ممكن يلتصق فيه) تنقطع من جديد
+        int first = firstEndingAtOrAfter(start);
+        int last = firstStartingAfter(oldEnd);
+        int from = first < count ? Math.min(starts[first], start) : start;
+        int to = last > first ? Math.max(ends[last - 1] + delta, newEnd) : newEnd;
+        int shift = retokenize(first, last, from, to, delta);
+
+        // نكمل من آخر checkpoint قبل أول token تغير؛ اللي بعد المدى المعدل نقارن فيها
+        int resume = checkpointCount - 1;
+        while (checkpoints[resume].token > first) resume--;
+        int kept = resume + 1;
+        while (kept < checkpointCount && checkpoints[kept].token < last) kept++;
+        Checkpoint[] old = Arrays.copyOfRange(checkpoints, kept, checkpointCount);
+        for (Checkpoint checkpoint : old) checkpoint.token += shift;
+        checkpointCount = resume + 1;
+
+        Node oldOperators = operators;
+        Node oldValues = values;
+        ConversionResult oldError = error;
+        int oldInvalid = invalid;
+        String oldTail = tail;
+        int oldBody = body.length();
+        int changed = checkpoints[resume].body;
+
+        int end = run(resume, old);
+        if (end >= 0) {
+            // نفس الحالة الأخيرة القديمة
+            operators = oldOperators;
+            values = oldValues;
+            error = oldError;
+            invalid = oldInvalid >= 0 ? oldInvalid + shift : -1;
+        }
+        finish();
+
+        if (end >= 0 && tail.equals(oldTail)) {
+            display.replace(changed, end, body.substring(changed, body.length() - (oldBody - end)));
+        } else {
+            display.replace(changed, oldBody + oldTail.length(), body.substring(changed) + tail);
+        }
+    }
+
+    public String output() {
+        return body + tail;
+    }
+
+    // null إذا التحويل صحيح وما في تقييم (الوضع المخصص)؛ غير ذلك القيمة أو الخطأ
+    public ConversionResult result() {
+        return result;
+    }
+
+    public int tokenCount() { return count; }
+
+    // shunting-yard من checkpoint رقم resume لآخر الـ tokens. إذا وصلنا checkpoint قديم بنفس
+    // الحالة، نلصق باقي الـ body القديم ونرجع مكان نهاية الجزء القديم اللي تبدل؛ غير ذلك -1
+    private int run(int resume, Checkpoint[] old) {
+        Checkpoint start = checkpoints[resume];
+        bodyStart = start.body;
+        operators = start.operators;
+        values = start.values;
+        error = start.error;
+        middle.setLength(0);
+        int next = 0;
+
+        int i = start.token;
+        for (; i < count; i++) {
+            while (old != null && next < old.length && old[next].token < i) next++;
+            if (old != null && next < old.length && old[next].token == i) {
+                Checkpoint candidate = old[next];
+                if (same(candidate.operators, operators) && same(candidate.values, values)
+                        && sameError(candidate.error, error)) {
+                    return converge(old, next);
+                }
+                addCheckpoint(new Checkpoint(i, bodyStart + middle.length(), operators, values, error));
+            } else if (i - checkpoints[checkpointCount - 1].token >= CHECKPOINT_INTERVAL) {
+                addCheckpoint(new Checkpoint(i, bodyStart + middle.length(), operators, values, error));
+            }
+
+            SymbolTable.Symbol symbol = kinds[i];
+            int kind = symbol == null ? 0 : symbol.kind;
+            if (kind == SymbolTable.OPERAND) {
+                emit(middle, text, starts[i], ends[i]);
+                if (evaluate) values = new Node(values, null, numbers[i]);
+            } else if (kind == SymbolTable.LEFT_PAREN) {
+                operators = new Node(operators, symbol, 0);
+            } else if (kind == SymbolTable.RIGHT_PAREN) {
+                while (operators != null && operators.symbol.kind != SymbolTable.LEFT_PAREN) {
+                    pop();
+                }
+                if (operators != null) operators = operators.next;
+            } else if (kind == SymbolTable.OPERATOR) {
+                while (operators != null && operators.symbol.kind != SymbolTable.LEFT_PAREN &&
+                        operators.symbol.priority >= symbol.priority) {
+                    pop();
+                }
+                operators = new Node(operators, symbol, 0);
+            } else {
+                break;
+            }
+        }
+
+        body.setLength(bodyStart);
+        body.append(middle);
+        invalid = i < count ? i : -1;
+        return -1;
+    }
+
+    // الباقي من الـ body القديم يبقى؛ نبدل [bodyStart, end) بالجديد ونرجع end
+    private int converge(Checkpoint[] old, int next) {
+        int oldStart = old[next].body;
+        int length = bodyStart + middle.length();
+        int end = oldStart;
+        // كل token قبله مسافة، إلا أول واحد في الـ body
+        if (oldStart < body.length()) {
+            if (length > 0 && oldStart == 0) middle.append(' ');
+            if (length == 0 && oldStart > 0) end++;
+        }
+        body.replace(bodyStart, end, middle.toString());
+        int shift = bodyStart + middle.length() - end;
+        for (int k = next; k < old.length; k++) {
+            Checkpoint checkpoint = old[k];
+            checkpoint.body = checkpoint.body == oldStart ? length : checkpoint.body + shift;
+            addCheckpoint(checkpoint);
+        }
+        return end;
+    }
+
+    // المشغل اللي فوق الـ stack يطلع للـ postfix وينطبق على الأرقام
+    private void pop() {
+        SymbolTable.Symbol operator = operators.symbol;
+        operators = operators.next;
+        emit(middle, operator.text, 0, operator.text.length());
+        apply(operator);
+    }
+
+    // نفس reduce في evaluateInfix: بعد أول خطأ ما نحسب شي
+    private void apply(SymbolTable.Symbol operator) {
+        if (!evaluate || error != null) return;
+        // قوس ( بدون )
+        if (operator.kind != SymbolTable.OPERATOR) {
+            error = ConversionResult.failure(ConversionResult.INVALID_TOKEN, operator.text, 0, operator.text.length(), -1);
+            return;
+        }
+        if (values == null || values.size < 2) {
+            error = INVALID_POSTFIX;
+            return;
+        }
+        double op2 = values.value;
+        double op1 = values.next.value;
+        if (op2 == 0 && operator.text.equals("/")) {
+            error = DIVISION_BY_ZERO;
+            return;
+        }
+        values = new Node(values.next.next, null, CompiledExpression.apply(CompiledExpression.opcode(operator.text), op1, op2));
+    }
+
+    // المشغلات الباقية في الـ stack (tail) والنتيجة النهائية
+    private void finish() {
+        if (invalid >= 0) {
+            tail = "";
+            result = ConversionResult.failure(ConversionResult.INVALID_TOKEN, text,
+                    starts[invalid], ends[invalid], starts[invalid]);
+            return;
+        }
+        Node keepOperators = operators;
+        Node keepValues = values;
+        ConversionResult keepError = error;
+        StringBuilder out = new StringBuilder();
+        while (operators != null) {
+            SymbolTable.Symbol operator = operators.symbol;
+            operators = operators.next;
+            if (body.length() + out.length() > 0) out.append(' ');
+            out.append(operator.text);
+            apply(operator);
+        }
+        tail = out.toString();
+        if (!evaluate) result = null;
+        else if (error != null) result = error;
+        else if (values == null || values.size != 1) result = INVALID_POSTFIX;
+        else result = ConversionResult.of(values.value);
+        operators = keepOperators;
+        values = keepValues;
+        error = keepError;
+    }
+
+    private void emit(StringBuilder out, CharSequence token, int start, int end) {
+        if (bodyStart + out.length() > 0) out.append(' ');
+        out.append(token, start, end);
+    }
+
+    // يبدل الـ tokens [first, last) باللي في [from, to) من النص الجديد ويزيح اللي بعدها؛
+    // يرجع فرق العدد
+    private int retokenize(int first, int last, int from, int to, int delta) {
+        int n = 0;
+        scanner.reset(text, from);
+        while (scanner.next() && scanner.start() < to) n++;
+        int shift = n - (last - first);
+        ensureCapacity(count + shift);
+        int moved = count - last;
+        System.arraycopy(starts, last, starts, first + n, moved);
+        System.arraycopy(ends, last, ends, first + n, moved);
+        System.arraycopy(kinds, last, kinds, first + n, moved);
+        System.arraycopy(numbers, last, numbers, first + n, moved);
+        count += shift;
+        for (int k = first + n; k < count; k++) {
+            starts[k] += delta;
+            ends[k] += delta;
+        }
+        if (shift < 0) Arrays.fill(kinds, count, count - shift, null);
+        scanner.reset(text, from);
+        for (int k = first; k < first + n; k++) {
+            scanner.next();
+            store(k);
+        }
+        return shift;
+    }
+
+    // الـ token الحالي في الـ scanner، بنفس resolve اللي في Converter
+    private void store(int k) {
+        starts[k] = scanner.start();
+        ends[k] = scanner.end();
+        kinds[k] = scanner.isNumber() && symbols.numericOperands()
+                ? SymbolTable.NUMBER : symbols.lookup(text, scanner.start(), scanner.end());
+        numbers[k] = scanner.isNumber() ? scanner.number() : 0;
+    }
+
+    // أول token ينتهي عند pos أو بعده (اللي ينتهي عند pos ملاصق للتعديل)
+    private int firstEndingAtOrAfter(int pos) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < pos) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // أول token يبدأ بعد pos
+    private int firstStartingAfter(int pos) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= pos) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= starts.length) return;
+        int size = Math.max(capacity, starts.length * 2);
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+        kinds = Arrays.copyOf(kinds, size);
+        numbers = Arrays.copyOf(numbers, size);
+    }
+
+    private void addCheckpoint(Checkpoint checkpoint) {
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+        }
+        checkpoints[checkpointCount++] = checkpoint;
+    }
+
+    // نفس المحتوى؛ بعد أول node مشترك الباقي أكيد نفسه
+    private static boolean same(Node a, Node b) {
+        if (a == b) return true;
+        if (a == null || b == null || a.size != b.size) return false;
+        while (a != b) {
+            if (a.symbol != b.symbol || Double.doubleToLongBits(a.value) != Double.doubleToLongBits(b.value)) {
+                return false;
+            }
+            a = a.next;
+            b = b.next;
+        }
+        return true;
+    }
+
+    private static boolean sameError(ConversionResult a, ConversionResult b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        return a.errorCode() == b.errorCode() && Objects.equals(a.token(), b.token());
+    }
+}
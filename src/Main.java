@@ -1,26 +1,78 @@
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.scene.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.*;
 import javafx.geometry.Insets;
+import javafx.util.Duration;
 import java.io.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.management.JMException;
 
 public class Main extends Application {
     private Converter converter = new Converter();
+    // تظهر في JConsole تحت notation-converter
+    private ConverterMetrics metrics = new ConverterMetrics();
+    // سجل الجلسة للـ Save Report
+    private ConversionHistory history = new ConversionHistory(10000);
+    private CheckBox logHistory = new CheckBox("Log to file");
     private boolean isCustom = false;
     private String[] language = new String[0];
     private String[] customOps = new String[0];
     private int[] customPrio = new int[0];
+    private File languageFile;
+    private File precedenceFile;
+    private GrammarWatcher watcher;
+    private CheckBox watchFiles = new CheckBox("Reload on file change");
 
     private TextArea input = new TextArea();
     private TextArea output = new TextArea();
     private ComboBox<String> type = new ComboBox<>();
+    private ProgressIndicator progress = new ProgressIndicator();
+
+    // الشغل الثقيل برا الـ FX thread حتى ما تعلق النافذة
+    private ExecutorService worker = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "converter-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Task<?> currentTask;
+    // تحميل الملفات (وغيره) ما ينلغي بتحويل جديد: يكمل أو يطلع خطأ
+    private int runningJobs;
+
+    // تحويل أثناء الكتابة، لـ Infix to Postfix بس: يتحدث جزئياً (LiveConverter) على الـ FX thread
+    // بدون أي مهمة في الخلفية، فما يلغي تحويل أو تحميل أو حفظ شغال
+    private CheckBox livePreview = new CheckBox("Live preview");
+    private Label liveStatus = new Label();
+    private PauseTransition liveDelay = new PauseTransition(Duration.millis(50));
+    private LiveConverter live;
+    // التحويل الكامل (القواعد و reset) في الخلفية؛ ينلغي بس بـ rebuild أحدث
+    private Task<LiveConverter> liveTask;
+    // output انكتب من مكان ثاني (زر أو رسالة أو قواعد جديدة): التحديث الجاي يحول من الأول
+    private boolean liveStale;
+    private boolean liveWriting;
+    // التعديلات من آخر تحديث كمدى واحد: [editStart, editOldEnd) في النص القديم صار [editStart, editNewEnd)
+    private int editStart = -1;
+    private int editOldEnd;
+    private int editNewEnd;
 
     @Override
     public void start(Stage stage) {
         stage.setMaximized(true);
         stage.setTitle("Notation Converter");
+        try {
+            metrics.register("gui");
+        } catch (JMException e) {
+            // بدون JMX البرنامج يشتغل عادي
+        }
 
         VBox main = new VBox(10);
         main.setPadding(new Insets(10));
@@ -39,24 +91,33 @@ public class Main extends Application {
         HBox fileBox = new HBox(10);
         Button loadLang = new Button("Load Language");
         Button loadPrec = new Button("Load Precedence");
-        fileBox.getChildren().addAll(loadLang, loadPrec);
+        fileBox.getChildren().addAll(loadLang, loadPrec, watchFiles);
+        watchFiles.setOnAction(e -> restartWatcher());
         fileBox.setVisible(false);
 
         normal.setOnAction(e -> {
             isCustom = false;
             fileBox.setVisible(false);
             output.setText("Switched to Conventional mode (numbers only)");
+            restartLive();
         });
 
         custom.setOnAction(e -> {
             isCustom = true;
             fileBox.setVisible(true);
-
+            restartLive();
         });
 
         // Input
         input.setPromptText("Enter expression here");
         input.setPrefHeight(100);
+        input.setTextFormatter(new TextFormatter<String>(change -> {
+            if (liveEnabled() && change.isContentChange()) {
+                recordEdit(change.getRangeStart(), change.getRangeEnd(), change.getText().length());
+            }
+            return change;
+        }));
+        liveDelay.setOnFinished(e -> updateLive());
 
         // Conversion type
         type.getItems().addAll(
@@ -68,6 +129,12 @@ public class Main extends Application {
                 "Prefix to Postfix"
         );
         type.setValue("Infix to Postfix");
+        type.setOnAction(e -> {
+            // الأنواع الثانية ما عندها تحديث جزئي
+            livePreview.setDisable(!"Infix to Postfix".equals(type.getValue()));
+            restartLive();
+        });
+        livePreview.setTooltip(new Tooltip("Incremental preview for Infix to Postfix"));
 
         // Action buttons
         HBox buttonBox = new HBox(10);
@@ -75,11 +142,16 @@ public class Main extends Application {
         Button evaluate = new Button("Evaluate");
         Button clear = new Button("Clear");
         Button saveReport = new Button("Save Report");
-        buttonBox.getChildren().addAll(convert, evaluate, clear, saveReport);
+        progress.setPrefSize(24, 24);
+        progress.setVisible(false);
+        buttonBox.getChildren().addAll(convert, evaluate, clear, saveReport, logHistory, livePreview, progress);
 
         // Output
         output.setEditable(false);
         output.setPrefHeight(150);
+        output.textProperty().addListener(o -> {
+            if (!liveWriting) liveStale = true;
+        });
 
         // Add everything
         main.getChildren().addAll(
@@ -94,17 +166,21 @@ public class Main extends Application {
                 buttonBox,
                 new Separator(),
                 new Label("Output:"),
-                output
+                output,
+                liveStatus
         );
 
         // Button actions
         convert.setOnAction(e -> convert());
         evaluate.setOnAction(e -> evaluate());
         clear.setOnAction(e -> {
+            cancelCurrentTask();
             input.clear();
             output.clear();
         });
         saveReport.setOnAction(e -> saveReport());
+        logHistory.setOnAction(e -> toggleHistoryLog());
+        livePreview.setOnAction(e -> restartLive());
 
         loadLang.setOnAction(e -> loadLanguage());
         loadPrec.setOnAction(e -> loadPrecedence());
@@ -121,52 +197,152 @@ public class Main extends Application {
             return;
         }
 
-        try {
-            if (isCustom) {
-                if (language == null || language.length == 0) {
-                    output.setText("Error: Load language file first");
-                    return;
-                }
-                if (customOps == null || customOps.length == 0) {
-                    output.setText("Error: Load precedence file first");
-                    return;
-                }
-                converter.setCustom(language, customOps, customPrio);
-            } else {
-                converter.resetToDefault();
+        if (isCustom) {
+            if (language == null || language.length == 0) {
+                output.setText("Error: Load language file first");
+                return;
             }
+            if (customOps == null || customOps.length == 0) {
+                output.setText("Error: Load precedence file first");
+                return;
+            }
+        }
 
-            String result = "";
-            String convType = type.getValue();
+        // نأخذ القيم من الواجهة هنا (FX thread) قبل ما نبدأ
+        boolean custom = isCustom;
+        String[] ops = language;
+        String[] opsPrec = customOps;
+        int[] prio = customPrio;
+        String convType = type.getValue();
 
+        runInBackground(() -> recorded(custom, convType, text, () -> {
+            Converter local = configure(custom, ops, opsPrec, prio);
             switch (convType) {
-                case "Infix to Postfix":
-                    result = converter.infixToPostfix(text);
-                    break;
-                case "Infix to Prefix":
-                    result = converter.infixToPrefix(text);
-                    break;
-                case "Postfix to Infix":
-                    result = converter.postfixToInfix(text);
-                    break;
-                case "Postfix to Prefix":
-                    result = converter.postfixToPrefix(text);
-                    break;
-                case "Prefix to Infix":
-                    result = converter.prefixToInfix(text);
-                    break;
-                case "Prefix to Postfix":
-                    result = converter.prefixToPostfix(text);
-                    break;
+                case "Infix to Postfix": return local.infixToPostfix(text);
+                case "Infix to Prefix": return local.infixToPrefix(text);
+                case "Postfix to Infix": return local.postfixToInfix(text);
+                case "Postfix to Prefix": return local.postfixToPrefix(text);
+                case "Prefix to Infix": return local.prefixToInfix(text);
+                case "Prefix to Postfix": return local.prefixToPostfix(text);
+                default: return "";
             }
+        }), output::setText, e -> "Error: " + e.getMessage());
+    }
 
-            output.setText(result);
+    // يجمع التعديلات لين يخلص الـ debounce: [start, end) في النص الحالي صار inserted حرف
+    private void recordEdit(int start, int end, int inserted) {
+        if (editStart < 0) {
+            editStart = start;
+            editOldEnd = end;
+            editNewEnd = end;
+        }
+        if (end > editNewEnd) editOldEnd += end - editNewEnd;
+        editNewEnd = Math.max(editNewEnd, end) + inserted - (end - start);
+        editStart = Math.min(editStart, start);
+        liveDelay.playFromStart();
+    }
 
-        } catch (Exception e) {
-            output.setText("Error: " + e.getMessage());
+    // بعد تغيير النوع أو الوضع أو تشغيل الخيار: تحويل كامل من جديد
+    private void restartLive() {
+        cancelLiveTask();
+        live = null;
+        editStart = -1;
+        liveDelay.stop();
+        liveStatus.setText("");
+        if (liveEnabled()) updateLive();
+    }
+
+    private boolean liveEnabled() {
+        return livePreview.isSelected() && !livePreview.isDisabled();
+    }
+
+    // التعديل الصغير يتطبق على الـ FX thread (أقل من frame حتى لـ 100k token)؛
+    // أول مرة أو بعد ما output انكتب من مكان ثاني: rebuildLive في الخلفية
+    private void updateLive() {
+        if (!liveEnabled()) return;
+        if (isCustom && (language.length == 0 || customOps.length == 0)) {
+            cancelLiveTask();
+            live = null;
+            editStart = -1;
+            liveStatus.setText(language.length == 0
+                    ? "Error: Load language file first" : "Error: Load precedence file first");
+            return;
+        }
+        // التعديلات تتجمع لين يخلص الـ rebuild، وبعدها تنطبق مرة وحدة
+        if (liveTask != null) return;
+        if (live == null || liveStale) {
+            rebuildLive();
+            return;
+        }
+
+        if (editStart >= 0) {
+            liveWriting = true;
+            try {
+                live.edit(input.getText(), editStart, editOldEnd, editNewEnd, output::replaceText);
+            } finally {
+                liveWriting = false;
+            }
+            editStart = -1;
+        }
+        showLiveResult();
+    }
+
+    // القواعد (setCustom ممكن يبني جدول كبير أو ينتظر الـ lock) والتحويل الكامل على الـ worker
+    private void rebuildLive() {
+        boolean custom = isCustom;
+        String[] ops = language;
+        String[] opsPrec = customOps;
+        int[] prio = customPrio;
+        String text = input.getText();
+        // التعديلات من هنا ورايح تنحسب على text
+        editStart = -1;
+        live = null;
+
+        Task<LiveConverter> task = new Task<LiveConverter>() {
+            @Override
+            protected LiveConverter call() {
+                LiveConverter converter = new LiveConverter(configure(custom, ops, opsPrec, prio).getConfig());
+                converter.reset(text);
+                return converter;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (liveTask != task) return;
+            liveTask = null;
+            live = task.getValue();
+            liveWriting = true;
+            try {
+                output.setText(live.output());
+            } finally {
+                liveWriting = false;
+            }
+            liveStale = false;
+            updateLive();
+        });
+        task.setOnFailed(e -> {
+            if (liveTask != task) return;
+            liveTask = null;
+            if (!(task.getException() instanceof CancellationException)) {
+                liveStatus.setText("Error: " + task.getException().getMessage());
+            }
+        });
+        liveTask = task;
+        worker.submit(task);
+    }
+
+    private void cancelLiveTask() {
+        if (liveTask != null) {
+            liveTask.cancel(true);
+            liveTask = null;
         }
     }
 
+    private void showLiveResult() {
+        ConversionResult result = live.result();
+        if (live.tokenCount() == 0 || result == null) liveStatus.setText("");
+        else liveStatus.setText(result.isOk() ? "Result: " + result : result.toString());
+    }
+
     private void evaluate() {
         String text = input.getText().trim();
         if (text.isEmpty()) {
@@ -174,27 +350,116 @@ public class Main extends Application {
             return;
         }
 
+        // في الوضع المخصص، لا يمكن التقييم
+        if (isCustom) {
+            output.setText("Error: Evaluation is only available in Conventional mode (numbers only)");
+            return;
+        }
+
+        runInBackground(() -> recorded(false, "Evaluate", text, () -> {
+            // في الوضع العادي، يمكن التقييم
+            Converter local = configure(false, null, null, null);
+
+            // تقييم مباشر للـ infix، والـ postfix ينكتب بنفس المرور للعرض
+            StringBuilder postfix = new StringBuilder(text.length());
+            double result = local.evaluateInfix(text, postfix);
+
+            return "Postfix: " + postfix + "\n" + "Result: " + result;
+        }), output::setText, e -> "Error: " + e.getMessage() +
+                "\n\nNote: Conventional mode only supports numbers (e.g., 2 + 3 * 4)");
+    }
+
+    // النتيجة أو الخطأ ينحفظ في السجل على الـ worker thread (مش الـ FX thread)
+    private String recorded(boolean custom, String convType, String text, Callable<String> work) throws Exception {
+        long start = System.nanoTime();
         try {
-            // في الوضع المخصص، لا يمكن التقييم
-            if (isCustom) {
-                output.setText("Error: Evaluation is only available in Conventional mode (numbers only)");
-                return;
+            String result = work.call();
+            history.recordResult(custom, convType, text, result, System.nanoTime() - start);
+            return result;
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            history.recordError(custom, convType, text, e.getMessage(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    // كل مهمة تاخذ Converter خاص فيها بنفس الإعدادات، فالمهمة القديمة ما تأثر على الجديدة
+    private Converter configure(boolean custom, String[] ops, String[] opsPrec, int[] prio) {
+        ConverterConfig config;
+        synchronized (converter) {
+            if (custom) converter.setCustom(ops, opsPrec, prio);
+            else converter.resetToDefault();
+            config = converter.getConfig();
+        }
+        return new Converter(config, metrics);
+    }
+
+    // يلغي المهمة الحالية (إن وجدت) ويشغل الجديدة؛ النتيجة ترجع على الـ FX thread
+    private <T> void runInBackground(Callable<T> work, Consumer<T> onSuccess, Function<Throwable, String> onError) {
+        cancelCurrentTask();
+        Task<T> task = new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
             }
+        };
+        task.setOnSucceeded(e -> {
+            finishTask(task);
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            finishTask(task);
+            if (!(task.getException() instanceof CancellationException)) {
+                output.setText(onError.apply(task.getException()));
+            }
+        });
+        task.setOnCancelled(e -> finishTask(task));
 
-            // في الوضع العادي، يمكن التقييم
-            converter.resetToDefault();
+        currentTask = task;
+        progress.setVisible(true);
+        worker.submit(task);
+    }
 
-            // أولاً: تحويل إلى postfix
-            String postfix = converter.infixToPostfix(text);
+    // شغل ما يتبدل بالجديد (تحميل ملف): ما ينلغي، والخطأ دائماً يظهر
+    private <T> void runJob(Callable<T> work, Consumer<T> onSuccess, Function<Throwable, String> onError) {
+        Task<T> task = new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            finishJob();
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            finishJob();
+            output.setText(onError.apply(task.getException()));
+        });
 
-            // ثانياً: تقييم postfix
-            double result = converter.evaluatePostfix(postfix);
+        runningJobs++;
+        progress.setVisible(true);
+        worker.submit(task);
+    }
 
-            output.setText( "Postfix: " + postfix + "\n" + "Result: " + result);
+    private void finishJob() {
+        runningJobs--;
+        progress.setVisible(currentTask != null || runningJobs > 0);
+    }
 
-        } catch (Exception e) {
-            output.setText("Error: " + e.getMessage() +
-                    "\n\nNote: Conventional mode only supports numbers (e.g., 2 + 3 * 4)");
+    private void cancelCurrentTask() {
+        if (currentTask != null) {
+            currentTask.cancel(true);
+            currentTask = null;
+            progress.setVisible(runningJobs > 0);
+        }
+    }
+
+    private void finishTask(Task<?> task) {
+        if (currentTask == task) {
+            currentTask = null;
+            progress.setVisible(runningJobs > 0);
         }
     }
 
@@ -206,23 +471,12 @@ public class Main extends Application {
         );
         File file = chooser.showOpenDialog(null);
         if (file != null) {
-            try {
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                StringBuilder content = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    content.append(line).append(" ");
-                }
-                reader.close();
-
-                String[] tokens = content.toString().trim().split("\\s+");
+            runJob(() -> GrammarLoader.loadLanguage(file.toPath()), tokens -> {
                 language = tokens;
-
+                languageFile = file;
+                restartWatcher();
                 output.setText("Language file loaded successfully!\n\n" );
-
-            } catch (Exception e) {
-                output.setText("Error loading language file: " + e.getMessage());
-            }
+            }, e -> "Error loading language file: " + e.getMessage());
         }
     }
 
@@ -234,99 +488,45 @@ public class Main extends Application {
         );
         File file = chooser.showOpenDialog(null);
         if (file != null) {
-            try {
-                // أولاً: حساب عدد المشغلات
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                int operatorCount = 0;
-                String line;
-
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (line.isEmpty()) continue;
-
-                    String[] parts = line.split("\\s+");
-                    // نتحقق أن السطر يحتوي على أولوية (رقم في النهاية)
-                    if (parts.length >= 2) {
-                        // نطرح 1 لأن آخر عنصر هو الأسبقية
-                        operatorCount += (parts.length - 1);
-                    }
-                }
-                reader.close();
-
-                if (operatorCount == 0) {
-                    output.setText("Error: No valid operators found in the file");
-                    return;
-                }
-
-                // ثانياً: قراءة المشغلات وأولوياتها
-                reader = new BufferedReader(new FileReader(file));
-                customOps = new String[operatorCount];
-                customPrio = new int[operatorCount];
-                int index = 0;
-
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (line.isEmpty()) continue;
-
-                    String[] parts = line.split("\\s+");
-                    if (parts.length < 2) continue;
-
-                    // آخر عنصر هو الأولوية
-                    String lastPart = parts[parts.length - 1];
-                    int priority;
-
-                    try {
-                        priority = Integer.parseInt(lastPart);
-                    } catch (NumberFormatException e) {
-                        output.setText("Error: Priority must be a number. Found: '" + lastPart + "'");
-                        reader.close();
-                        return;
-                    }
-
-                    // إضافة كل مشغل في السطر (ما عدا الأخير)
-                    for (int i = 0; i < parts.length - 1; i++) {
-                        customOps[index] = parts[i];
-                        customPrio[index] = priority;
-                        index++;
-                    }
-                }
-                reader.close();
-
-                // عرض النتيجة
-                StringBuilder result = new StringBuilder();
-                result.append("Precedence file loaded successfully!");
-
-
-
-
-
-
-                // البحث عن الأولويات الفريدة
-                String priorities = "";
-                for (int i = 0; i < customPrio.length; i++) {
-                    String prioStr = String.valueOf(customPrio[i]);
-                    if (!priorities.contains("|" + prioStr + "|")) {
-                        priorities += "|" + prioStr + "|";
-
-                        // جمع كل العمليات لهذه الأولوية
-                        result.append("  Priority ").append(prioStr).append(": ");
-                        String operatorsForThisPrio = "";
-
-                        for (int j = 0; j < customOps.length; j++) {
-                            if (customPrio[j] == customPrio[i]) {
-                                operatorsForThisPrio += customOps[j] + " ";
-                            }
-                        }
-
-
-                    }
-                }
+            runJob(() -> GrammarLoader.loadPrecedence(file.toPath()), loaded -> {
+                customOps = loaded.operators;
+                customPrio = loaded.priorities;
+                precedenceFile = file;
+                restartWatcher();
+                output.setText(loaded.summary());
+            }, e -> e instanceof IllegalArgumentException
+                    ? "Error: " + e.getMessage()
+                    : "Error loading precedence file: " + e.getMessage());
+        }
+    }
 
-                output.setText(result.toString());
+    // إعادة تحميل الملفين تلقائياً إذا تعدلوا (لو الخيار مفعل)
+    private void restartWatcher() {
+        stopWatcher();
+        if (!watchFiles.isSelected() || languageFile == null || precedenceFile == null) return;
+        try {
+            watcher = new GrammarWatcher(languageFile.toPath(), precedenceFile.toPath(),
+                    config -> Platform.runLater(() -> {
+                        language = config.operands();
+                        customOps = config.operators();
+                        customPrio = config.priorities();
+                        converter.setConfig(config);
+                        output.setText("Language and precedence files reloaded");
+                    }),
+                    e -> Platform.runLater(() -> output.setText("Error reloading files: " + e.getMessage())));
+        } catch (IOException e) {
+            output.setText("Error watching files: " + e.getMessage());
+        }
+    }
 
-            } catch (Exception e) {
-                output.setText("Error loading precedence file: " + e.getMessage());
+    private void stopWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // nothing left to release
             }
+            watcher = null;
         }
     }
 
@@ -334,51 +534,76 @@ public class Main extends Application {
         FileChooser chooser = new FileChooser();
         chooser.setTitle("Save Report");
         chooser.setInitialFileName("conversion_report.txt");
-        chooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Text Files", "*.txt")
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text Files", "*.txt"),
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv")
         );
         File file = chooser.showSaveDialog(null);
         if (file != null) {
-            try {
-                PrintWriter writer = new PrintWriter(file);
-                writer.println("=== Notation Conversion Report ===");
-                writer.println();
-                writer.println("Mode: " + (isCustom ? "Custom" : "Conventional"));
-                writer.println();
-                writer.println("Input Expression: " + input.getText());
-                writer.println("Conversion Type: " + type.getValue());
-                writer.println("Output: " + output.getText());
-                writer.println();
-
-                if (isCustom) {
-                    writer.println("=== Custom Configuration ===");
-                    writer.println("Language File:");
-                    writer.print("  Operands: ");
-                    for (String s : language) {
-                        writer.print(s + " ");
-                    }
-                    writer.println();
-                    writer.println();
-                    writer.println("Precedence File:");
-                    writer.println("  Operators and Priorities:");
-                    for (int i = 0; i < customOps.length; i++) {
-                        writer.println("    " + customOps[i] + " -> " + customPrio[i]);
-                    }
-                } else {
-                    writer.println("=== Conventional Mode ===");
-                    writer.println("Operators: +, -, *, /, ^");
-                    writer.println("Priorities: +:1, -:1, *:2, /:2, ^:3");
-                }
-
-                writer.println();
-                writer.println("=================================");
-                writer.close();
-
-                output.setText("Report saved successfully to:\n" + file.getAbsolutePath());
-
-            } catch (Exception e) {
-                output.setText("Error saving report: " + e.getMessage());
+            // نقرأ الواجهة هنا، والكتابة نفسها في الخلفية
+            int format = file.getName().toLowerCase().endsWith(".csv")
+                    ? ConversionHistory.FORMAT_CSV : ConversionHistory.FORMAT_TEXT;
+            String header = reportHeader();
+            runJob(() -> {
+                history.export(file.toPath(), format, header);
+                return "Report saved successfully to:\n" + file.getAbsolutePath();
+            }, output::setText, e -> "Error saving report: " + e.getMessage());
+        }
+    }
+
+    private String reportHeader() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Notation Conversion Report ===\n\n");
+        report.append("Mode: ").append(isCustom ? "Custom" : "Conventional").append("\n\n");
+        report.append("Input Expression: ").append(input.getText()).append('\n');
+        report.append("Conversion Type: ").append(type.getValue()).append('\n');
+        report.append("Output: ").append(output.getText()).append("\n\n");
+
+        if (isCustom) {
+            report.append("=== Custom Configuration ===\n");
+            report.append("Language File:\n");
+            report.append("  Operands: ");
+            for (String s : language) {
+                report.append(s).append(' ');
+            }
+            report.append("\n\n");
+            report.append("Precedence File:\n");
+            report.append("  Operators and Priorities:\n");
+            for (int i = 0; i < customOps.length; i++) {
+                report.append("    ").append(customOps[i]).append(" -> ").append(customPrio[i]).append('\n');
+            }
+        } else {
+            report.append("=== Conventional Mode ===\n");
+            report.append("Operators: +, -, *, /, ^\n");
+            report.append("Priorities: +:1, -:1, *:2, /:2, ^:3\n");
+        }
+
+        report.append("\n=================================\n");
+        return report.toString();
+    }
+
+    // كل عملية جديدة تنكتب في ملف CSV (append) من thread في الخلفية
+    private void toggleHistoryLog() {
+        try {
+            if (!logHistory.isSelected()) {
+                history.stopLog();
+                output.setText("History log stopped");
+                return;
+            }
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("History Log");
+            chooser.setInitialFileName("conversion_history.csv");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+            File file = chooser.showSaveDialog(null);
+            if (file == null) {
+                logHistory.setSelected(false);
+                return;
             }
+            history.startLog(file.toPath());
+            output.setText("Logging conversions to:\n" + file.getAbsolutePath());
+        } catch (IOException e) {
+            logHistory.setSelected(false);
+            output.setText("Error with history log: " + e.getMessage());
         }
     }
 
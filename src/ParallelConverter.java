@@ -0,0 +1,56 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// تحويل مجموعة تعبيرات على كل الـ cores، والنتائج بنفس ترتيب المدخلات
+public class ParallelConverter implements AutoCloseable {
+    private final Converter converter;
+    private final ForkJoinPool pool;
+
+    public ParallelConverter(ConverterConfig config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelConverter(ConverterConfig config, int threads) {
+        converter = new Converter(config);
+        pool = new ForkJoinPool(threads);
+    }
+
+    public Converter converter() {
+        return converter;
+    }
+
+    // التعبير الخاطئ نتيجته "Error: ..." والباقي يكمل عادي
+    public String[] convertAll(String type, String[] inputs) {
+        return map(inputs, inputs.length, input -> {
+            ConversionResult result = converter.tryConvert(type, input);
+            return result.isOk() ? result.value() : "Error: " + result.message();
+        });
+    }
+
+    // أول count عنصر فقط؛ result[i] = work(inputs[i])
+    public String[] map(String[] inputs, int count, Function<String, String> work) {
+        String[] results = new String[count];
+        if (pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) results[i] = work.apply(inputs[i]);
+            return results;
+        }
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel()
+                    .forEach(i -> results[i] = work.apply(inputs[i]))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -1,54 +1,72 @@
+// queue على قطع (chunks) ثابتة الحجم مربوطة ببعض: الكبر ما ينسخ العناصر الموجودة،
+// والقطعة اللي تفضى ترجع للذاكرة كاملة. قطعة فاضية وحدة تبقى احتياط (hysteresis)
+// حتى enqueue/dequeue حول حد القطعة ما يخصص ويحرر كل مرة
 public class Queue<T> {
-    private T[] items;
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final class Chunk {
+        final Object[] items;
+        Chunk next;
+
+        Chunk(int size) {
+            items = new Object[size];
+        }
+    }
+
+    // head فيه أول عنصر (من front)، tail فيه آخر عنصر (قبل back)
+    private Chunk head;
+    private Chunk tail;
+    private Chunk spare;
     private int front;
     private int back;
     private int count;
-    private int capacity;
 
-    @SuppressWarnings("unchecked")
+    // capacity = حجم أول قطعة فقط (حتى CHUNK_SIZE)
     public Queue(int capacity) {
-        this.capacity = capacity;
-        items = (T[]) new Object[capacity];
+        head = tail = new Chunk(Math.max(1, Math.min(capacity, CHUNK_SIZE)));
         front = 0;
-        back = -1;
+        back = 0;
         count = 0;
     }
 
     public void enqueue(T item) {
-        if (count == capacity) resize(capacity * 2);
-        back = (back + 1) % capacity;
-        items[back] = item;
+        if (back == tail.items.length) {
+            Chunk chunk = spare != null ? spare : new Chunk(CHUNK_SIZE);
+            spare = null;
+            tail.next = chunk;
+            tail = chunk;
+            back = 0;
+        }
+        tail.items[back++] = item;
         count++;
     }
 
+    @SuppressWarnings("unchecked")
     public T dequeue() {
         if (isEmpty()) throw new RuntimeException("Queue is empty");
-        T item = items[front];
-        items[front] = null;
-        front = (front + 1) % capacity;
+        T item = (T) head.items[front];
+        head.items[front++] = null;
         count--;
-        if (count > 0 && count == capacity / 4) resize(capacity / 2);
+        if (count == 0) {
+            // فاضي: head == tail، نرجع لأول القطعة بدل ما نفتح قطعة جديدة
+            front = 0;
+            back = 0;
+        } else if (front == head.items.length) {
+            Chunk done = head;
+            head = head.next;
+            done.next = null;
+            front = 0;
+            if (spare == null && done.items.length == CHUNK_SIZE) spare = done;
+        }
         return item;
     }
 
+    @SuppressWarnings("unchecked")
     public T peek() {
         if (isEmpty()) throw new RuntimeException("Queue is empty");
-        return items[front];
+        return (T) head.items[front];
     }
 
     public boolean isEmpty() { return count == 0; }
     public int size() { return count; }
-
-    @SuppressWarnings("unchecked")
-    private void resize(int newCapacity) {
-        T[] newItems = (T[]) new Object[newCapacity];
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % capacity;
-            newItems[i] = items[index];
-        }
-        items = newItems;
-        front = 0;
-        back = count - 1;
-        capacity = newCapacity;
-    }
-}
\ No newline at end of file
+}
@@ -1,28 +1,73 @@
+// stack على قطع (chunks) مربوطة ببعض مثل Queue: التعبيرات المتداخلة لمليون مستوى
+// ما تنسخ الـ stack كل ما يتضاعف. القطعة اللي فوق آخر وحدة مستخدمة تبقى احتياط
+// حتى push/pop على حد القطعة ما يخصص كل مرة
 public class Stack<T> {
-    private Queue<T> queue;
+    private static final int CHUNK_SIZE = 1024;
 
+    private static final class Chunk {
+        final Object[] items;
+        final Chunk previous;
+
+        Chunk(int size, Chunk previous) {
+            items = new Object[size];
+            this.previous = previous;
+        }
+    }
+
+    private Chunk chunk;
+    private Chunk spare;
+    // عدد العناصر في chunk
+    private int top;
+    private int size;
+    private int peak;
+
+    // capacity = حجم أول قطعة فقط (حتى CHUNK_SIZE)
     public Stack(int capacity) {
-        queue = new Queue<>(capacity);
+        chunk = new Chunk(Math.max(1, Math.min(capacity, CHUNK_SIZE)), null);
+        top = 0;
     }
 
     public void push(T item) {
-        queue.enqueue(item);
-        int size = queue.size();
-        for (int i = 0; i < size - 1; i++) {
-            queue.enqueue(queue.dequeue());
+        if (top == chunk.items.length) {
+            // spare دائماً القطعة اللي فوق chunk مباشرة
+            chunk = spare != null ? spare : new Chunk(CHUNK_SIZE, chunk);
+            spare = null;
+            top = 0;
         }
+        chunk.items[top++] = item;
+        if (++size > peak) peak = size;
     }
 
+    @SuppressWarnings("unchecked")
     public T pop() {
         if (isEmpty()) throw new RuntimeException("Stack is empty");
-        return queue.dequeue();
+        if (top == 0) {
+            // القطعة الفاضية تصير الاحتياط، واللي كانت احتياط قبلها ترجع للذاكرة
+            spare = chunk;
+            chunk = chunk.previous;
+            top = chunk.items.length;
+        }
+        T item = (T) chunk.items[--top];
+        chunk.items[top] = null;
+        size--;
+        return item;
     }
 
+    @SuppressWarnings("unchecked")
     public T peek() {
         if (isEmpty()) throw new RuntimeException("Stack is empty");
-        return queue.peek();
+        if (top == 0) return (T) chunk.previous.items[chunk.previous.items.length - 1];
+        return (T) chunk.items[top - 1];
+    }
+
+    // يرجع فاضي كأنه جديد؛ القطع الزايدة ترجع للذاكرة (تبقى الأولى والاحتياط)
+    public void clear() {
+        while (size > 0) pop();
+        peak = 0;
     }
 
-    public boolean isEmpty() { return queue.isEmpty(); }
-    public int size() { return queue.size(); }
-}
\ No newline at end of file
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+    // أكبر حجم وصل له
+    public int peak() { return peak; }
+}
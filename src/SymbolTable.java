@@ -0,0 +1,113 @@
+import java.util.HashMap;
+
+public class SymbolTable {
+    public static final int OPERAND = 1;
+    public static final int OPERATOR = 2;
+    public static final int LEFT_PAREN = 3;
+    public static final int RIGHT_PAREN = 4;
+
+    // نتيجة البحث عن token: النوع والأولوية مع بعض
+    public static class Symbol {
+        public final String text;
+        public final int kind;
+        public final int priority;
+
+        Symbol(String text, int kind, int priority) {
+            this.text = text;
+            this.kind = kind;
+            this.priority = priority;
+        }
+    }
+
+    // كل الأرقام في الوضع العادي ترجع نفس الـ Symbol
+    public static final Symbol NUMBER = new Symbol(null, OPERAND, 0);
+
+    // open addressing حتى نبحث بجزء من النص بدون ما ننشئ String
+    private final String[] keys;
+    private final Symbol[] values;
+    private final int mask;
+    private final boolean numericOperands;
+
+    // الوضع المخصص: المعاملات من ملف اللغة والمشغلات من ملف الأسبقية
+    public SymbolTable(String[] operands, String[] operators, int[] priorities) {
+        this(operands, operators, priorities, false);
+    }
+
+    private SymbolTable(String[] operands, String[] operators, int[] priorities, boolean numericOperands) {
+        this.numericOperands = numericOperands;
+        HashMap<String, Symbol> symbols = new HashMap<>((operands.length + operators.length + 2) * 4 / 3 + 1);
+        for (int i = 0; i < operators.length; i++) {
+            // first priority wins, same as the old linear scan
+            symbols.putIfAbsent(operators[i], new Symbol(operators[i], OPERATOR, priorities[i]));
+        }
+        symbols.put("(", new Symbol("(", LEFT_PAREN, 0));
+        symbols.put(")", new Symbol(")", RIGHT_PAREN, 0));
+        // operands are checked first in the converter, so they override anything above
+        for (String operand : operands) {
+            symbols.put(operand, new Symbol(operand, OPERAND, 0));
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(symbols.size() * 2, 8) - 1) << 1;
+        keys = new String[capacity];
+        values = new Symbol[capacity];
+        mask = capacity - 1;
+        for (Symbol symbol : symbols.values()) {
+            int index = slot(symbol.text, 0, symbol.text.length());
+            while (keys[index] != null) index = (index + 1) & mask;
+            keys[index] = symbol.text;
+            values[index] = symbol;
+        }
+    }
+
+    // من snapshot محفوظ: الجدول جاهز بنفس ترتيب الـ slots فما نحتاج hashing
+    SymbolTable(String[] keys, Symbol[] values, boolean numericOperands) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.numericOperands = numericOperands;
+    }
+
+    int capacity() { return keys.length; }
+    Symbol slotAt(int slot) { return values[slot]; }
+
+    // ال default: أرقام فقط مع + - * / ^
+    public static SymbolTable conventional() {
+        return new SymbolTable(new String[0],
+                new String[]{"+", "-", "*", "/", "^"},
+                new int[]{1, 1, 2, 2, 3}, true);
+    }
+
+    // في الوضع العادي المعاملات أرقام، والـ Tokenizer هو اللي يعرفها
+    public boolean numericOperands() {
+        return numericOperands;
+    }
+
+    public Symbol lookup(String token) {
+        return lookup(token, 0, token.length());
+    }
+
+    // returns null for unknown tokens
+    public Symbol lookup(CharSequence text, int start, int end) {
+        int index = slot(text, start, end);
+        String key;
+        while ((key = keys[index]) != null) {
+            if (sameText(key, text, start, end)) return values[index];
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private int slot(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + text.charAt(i);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean sameText(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != text.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
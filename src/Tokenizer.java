@@ -0,0 +1,186 @@
+import java.util.concurrent.CancellationException;
+
+public class Tokenizer {
+    // كل كم token نتحقق إذا انلغى الشغل (interrupt)
+    private static final int CANCEL_CHECK_INTERVAL = 1 << 16;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT = 1L << 53;
+
+    private CharSequence text;
+    private int pos;
+    private int start;
+    private int end;
+    private boolean number;
+    private double value;
+    private int untilCancelCheck = CANCEL_CHECK_INTERVAL;
+    private int count;
+
+    public Tokenizer(CharSequence text) {
+        reset(text);
+    }
+
+    // يبدأ من أول النص (للقراءة من اليسار)
+    public void reset(CharSequence text) {
+        this.text = text;
+        pos = 0;
+        start = end = 0;
+        count = 0;
+    }
+
+    // يبدأ من from (لتقطيع جزء من النص بس، انظر LiveConverter)
+    public void reset(CharSequence text, int from) {
+        reset(text);
+        pos = from;
+        start = end = from;
+    }
+
+    // يبدأ من آخر النص (للقراءة من اليمين مثل prefix)
+    public void resetToEnd(CharSequence text) {
+        this.text = text;
+        pos = text.length();
+        start = end = pos;
+        count = 0;
+    }
+
+    // next token from the left; any whitespace separates tokens
+    public boolean next() {
+        checkCancelled();
+        int length = text.length();
+        while (pos < length && Character.isWhitespace(text.charAt(pos))) pos++;
+        if (pos == length) return false;
+        start = pos;
+        while (pos < length && !Character.isWhitespace(text.charAt(pos))) pos++;
+        end = pos;
+        count++;
+        scanNumber();
+        return true;
+    }
+
+    // next token from the right
+    public boolean previous() {
+        checkCancelled();
+        while (pos > 0 && Character.isWhitespace(text.charAt(pos - 1))) pos--;
+        if (pos == 0) return false;
+        end = pos;
+        while (pos > 0 && !Character.isWhitespace(text.charAt(pos - 1))) pos--;
+        start = pos;
+        count++;
+        scanNumber();
+        return true;
+    }
+
+    // long conversions on a worker thread stop when the thread is interrupted
+    private void checkCancelled() {
+        if (--untilCancelCheck == 0) {
+            untilCancelCheck = CANCEL_CHECK_INTERVAL;
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Conversion cancelled");
+            }
+        }
+    }
+
+    public int start() { return start; }
+    public int end() { return end; }
+    public CharSequence source() { return text; }
+    public boolean isNumber() { return number; }
+    // عدد الـ tokens من آخر reset
+    public int count() { return count; }
+
+    // قيمة الرقم (صالحة فقط إذا isNumber)
+    public double number() { return value; }
+
+    public String text() {
+        return text.subSequence(start, end).toString();
+    }
+
+    // Validates a decimal literal ([+-]digits[.digits][e[+-]digits], NaN, Infinity)
+    // without exceptions and computes its value. Short literals are converted
+    // directly; anything that would need correct rounding goes to parseDouble.
+    private void scanNumber() {
+        number = false;
+        int i = start;
+        boolean negative = false;
+        char c = text.charAt(i);
+        if (c == '+' || c == '-') {
+            negative = c == '-';
+            if (++i == end) return;
+        }
+        if (matches(i, "NaN")) {
+            number = true;
+            value = Double.NaN;
+            return;
+        }
+        if (matches(i, "Infinity")) {
+            number = true;
+            value = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        for (; i < end && isDigit(text.charAt(i)); i++, digits++) {
+            exact &= accumulate(mantissa, text.charAt(i));
+            if (exact) mantissa = mantissa * 10 + (text.charAt(i) - '0');
+        }
+        if (i < end && text.charAt(i) == '.') {
+            for (i++; i < end && isDigit(text.charAt(i)); i++, digits++) {
+                exact &= accumulate(mantissa, text.charAt(i));
+                if (exact) mantissa = mantissa * 10 + (text.charAt(i) - '0');
+                scale--;
+            }
+        }
+        if (digits == 0) return;
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; i < end && isDigit(text.charAt(i)); i++, exponentDigits++) {
+                if (exponent < 100000) exponent = exponent * 10 + (text.charAt(i) - '0');
+            }
+            if (exponentDigits == 0) return;
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != end) return;
+
+        number = true;
+        if (exact && mantissa == 0) {
+            value = negative ? -0.0 : 0.0;
+        } else if (exact && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+            if (negative) value = -value;
+        } else if (exact && scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+            if (negative) value = -value;
+        } else {
+            value = Double.parseDouble(text());
+        }
+    }
+
+    // the fast path is only taken while the mantissa stays exactly representable
+    private static boolean accumulate(long mantissa, char digit) {
+        return mantissa <= (MAX_EXACT - (digit - '0')) / 10;
+    }
+
+    private boolean matches(int from, String word) {
+        if (end - from != word.length()) return false;
+        for (int k = 0; k < word.length(); k++) {
+            if (text.charAt(from + k) != word.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
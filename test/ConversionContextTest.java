@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// الـ buffers المعادة ما لازم تسرب شي بين تحويل والثاني: context واحد لـ converters مختلفة
+// بالتناوب، تعبير ضخم بعده صغير، خطأ بنص التحويل بعده تحويل صحيح، وكذا thread مع converter واحد
+public class ConversionContextTest {
+    private static final int ITERATIONS = Integer.getInteger("fuzz.iterations", 20_000);
+    private static final String[] OPERANDS = {"1", "2", "0", "3.5", "-4", "1e3"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "^"};
+    private static final String[] JUNK = {"1", "0", "+", "/", "(", ")", "x", "a"};
+
+    private static final String[] CUSTOM_OPERANDS = {"a", "b", "c"};
+    private static final String[] CUSTOM_OPERATORS = {"&", "|", "+"};
+    private static final int[] CUSTOM_PRIORITIES = {2, 1, 3};
+
+    @Test
+    void sharedContextMatchesReference() {
+        Converter conventional = new Converter();
+        Converter custom = new Converter();
+        custom.setCustom(CUSTOM_OPERANDS, CUSTOM_OPERATORS, CUSTOM_PRIORITIES);
+        ReferenceConverter conventionalReference = new ReferenceConverter();
+        ReferenceConverter customReference = new ReferenceConverter(CUSTOM_OPERANDS, CUSTOM_OPERATORS, CUSTOM_PRIORITIES);
+        ConversionContext context = new ConversionContext();
+        Random random = new Random(24);
+        for (int i = 0; i < ITERATIONS; i++) {
+            boolean isCustom = random.nextBoolean();
+            check(isCustom ? custom : conventional, isCustom ? customReference : conventionalReference,
+                    isCustom, context, random);
+        }
+    }
+
+    @Test
+    void threadsMatchReference() throws Exception {
+        Converter converter = new Converter();
+        ReferenceConverter reference = new ReferenceConverter();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Random random = new Random(240 + t);
+                runs.add(pool.submit(() -> {
+                    for (int i = 0; i < ITERATIONS / 4; i++) check(converter, reference, false, null, random);
+                }));
+            }
+            for (Future<?> run : runs) run.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // context null: الـ context تبع الـ thread
+    private static void check(Converter converter, ReferenceConverter reference, boolean isCustom,
+                              ConversionContext context, Random random) {
+        String input = randomInput(reference, isCustom, random);
+        String type = Converter.TYPES[random.nextInt(Converter.TYPES.length)];
+        String expected = outcome(() -> reference.convert(type, input));
+        if (context == null) {
+            assertEquals(expected, outcome(() -> converter.convert(type, input)), () -> type + " [" + input + "]");
+        } else {
+            assertEquals(expected, outcome(() -> converter.convert(type, input, context)), () -> type + " [" + input + "]");
+            assertEquals(expected, outcome(() -> converter.tryConvert(type, input, context).value()),
+                    () -> type + " [" + input + "]");
+        }
+        if (isCustom) return;
+        String postfix = outcome(() -> reference.infixToPostfix(input));
+        String value = outcome(() -> reference.evaluatePostfix(postfix));
+        if (context == null) {
+            assertEquals(value, outcome(() -> converter.evaluatePostfix(postfix)), () -> "evaluate [" + postfix + "]");
+        } else {
+            assertEquals(value, outcome(() -> converter.evaluatePostfix(postfix, context)), () -> "evaluate [" + postfix + "]");
+            assertEquals(value, outcome(() -> converter.tryEvaluatePostfix(postfix, context).number()),
+                    () -> "evaluate [" + postfix + "]");
+        }
+    }
+
+    // تعبير صحيح (infix أو postfix أو prefix، أحياناً بآلاف الـ tokens) أو tokens عشوائية غالباً غلط
+    private static String randomInput(ReferenceConverter reference, boolean isCustom, Random random) {
+        if (random.nextInt(3) == 0) {
+            StringBuilder junk = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int k = 0; k < length; k++) junk.append(JUNK[random.nextInt(JUNK.length)]).append(' ');
+            return junk.toString();
+        }
+        StringBuilder infix = new StringBuilder();
+        appendInfix(infix, random.nextInt(50) == 0 ? 1 + random.nextInt(3000) : 1 + random.nextInt(8),
+                isCustom ? CUSTOM_OPERANDS : OPERANDS, isCustom ? CUSTOM_OPERATORS : OPERATORS, random);
+        String text = infix.toString().trim();
+        switch (random.nextInt(3)) {
+            case 0: return text;
+            case 1: return reference.infixToPostfix(text);
+            default: return reference.convert("infix-prefix", text);
+        }
+    }
+
+    private static void appendInfix(StringBuilder out, int operands, String[] names, String[] operators, Random random) {
+        if (operands == 1) {
+            out.append(names[random.nextInt(names.length)]).append(' ');
+            return;
+        }
+        boolean parens = random.nextInt(4) == 0;
+        if (parens) out.append("( ");
+        int left = 1 + random.nextInt(operands - 1);
+        appendInfix(out, left, names, operators, random);
+        out.append(operators[random.nextInt(operators.length)]).append(' ');
+        appendInfix(out, operands - left, names, operators, random);
+        if (parens) out.append(") ");
+    }
+
+    private static String outcome(Supplier<Object> call) {
+        try {
+            return String.valueOf(call.get());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// tryConvert / tryEvaluatePostfix لازم يطابقوا الـ methods اللي ترمي exceptions والـ Converter الأصلي:
+// نفس القيمة أو نفس الـ exception والرسالة، ومكان الخطأ يأشر على الـ token نفسه في المدخل
+public class ConversionResultTest {
+    private static final int ITERATIONS = Integer.getInteger("fuzz.iterations", 20_000);
+    private static final String[] TOKENS = {"1", "2", "0", "3.5", "-4", "+", "-", "*", "/", "^", "(", ")",
+            "x", "a", "b", "&", "|", "99999999999999999999"};
+
+    @Test
+    void conventionalMatchesReference() {
+        check(new Converter(), new ReferenceConverter(), 21);
+    }
+
+    @Test
+    void customMatchesReference() {
+        String[] operands = {"a", "b", "c"};
+        String[] operators = {"&", "|", "+"};
+        int[] priorities = {2, 1, 3};
+        Converter converter = new Converter();
+        converter.setCustom(operands, operators, priorities);
+        check(converter, new ReferenceConverter(operands, operators, priorities), 22);
+    }
+
+    private static void check(Converter converter, ReferenceConverter reference, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < ITERATIONS; i++) {
+            // أحياناً تعبير طويل، عشان الـ buffers تكبر وترجع
+            String input = randomInput(random, i % 1000 == 0 ? 3000 : 12);
+            for (String type : Converter.TYPES) {
+                String expected = outcome(() -> reference.convert(type, input));
+                ConversionResult result = converter.tryConvert(type, input);
+                assertEquals(expected, outcome(result::value), () -> type + " [" + input + "]");
+                assertEquals(expected, outcome(() -> converter.convert(type, input)), () -> type + " [" + input + "]");
+                checkOffset(result, input);
+            }
+            String expected = outcome(() -> reference.evaluatePostfix(input));
+            ConversionResult result = converter.tryEvaluatePostfix(input);
+            assertEquals(expected, outcome(result::number), () -> "evaluate [" + input + "]");
+            assertEquals(expected, outcome(() -> converter.evaluatePostfix(input)), () -> "evaluate [" + input + "]");
+            checkOffset(result, input);
+        }
+    }
+
+    private static void checkOffset(ConversionResult result, String input) {
+        if (result.errorCode() == ConversionResult.INVALID_TOKEN) {
+            assertNotNull(result.token(), input);
+            assertTrue(result.offset() >= 0, input);
+        }
+        if (result.offset() >= 0) {
+            assertTrue(input.startsWith(result.token(), result.offset()),
+                    () -> result.offset() + " '" + result.token() + "' [" + input + "]");
+        }
+    }
+
+    private static String outcome(Supplier<Object> call) {
+        try {
+            return String.valueOf(call.get());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String randomInput(Random random, int maxLength) {
+        StringBuilder input = new StringBuilder();
+        int length = random.nextInt(maxLength);
+        for (int k = 0; k < length; k++) {
+            input.append(TOKENS[random.nextInt(TOKENS.length)]).append(random.nextInt(5) == 0 ? "  " : " ");
+        }
+        return input.toString();
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// evaluateInfix (two-stack بدون postfix وسيط) لازم يعطي نفس نتيجة/خطأ infixToPostfix ثم
+// evaluatePostfix في الـ Converter الأصلي، ونفس الـ postfix إذا أحد طلبه
+public class EvaluateInfixTest {
+    private static final int ITERATIONS = Integer.getInteger("fuzz.iterations", 200_000);
+    private static final String[] TOKENS = {"1", "2", "0", "3.5", "-4", "1e3", "+", "-", "*", "/", "^", "(", ")"};
+
+    @Test
+    void matchesPostfixThenEvaluate() {
+        Converter converter = new Converter();
+        ReferenceConverter reference = new ReferenceConverter();
+        Random random = new Random(19);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String infix = randomInfix(random);
+            assertEquals(expected(reference, infix), actual(converter, infix), () -> "[" + infix + "]");
+        }
+    }
+
+    @Test
+    void rejectsCustomMode() {
+        Converter converter = new Converter();
+        converter.setCustom(new String[]{"a", "b"}, new String[]{"+"}, new int[]{1});
+        assertEquals("UnsupportedOperationException: Evaluation not supported in custom mode",
+                actual(converter, "a + b"));
+    }
+
+    private static String expected(ReferenceConverter reference, String infix) {
+        try {
+            String postfix = reference.infixToPostfix(infix);
+            return postfix + " = " + reference.evaluatePostfix(postfix);
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String actual(Converter converter, String infix) {
+        try {
+            StringBuilder postfix = new StringBuilder();
+            double value = converter.evaluateInfix(infix, postfix);
+            assertEquals(Double.doubleToLongBits(value), Double.doubleToLongBits(converter.evaluateInfix(infix)));
+            assertEquals(Double.doubleToLongBits(value), Double.doubleToLongBits(converter.tryEvaluateInfix(infix).number()));
+            return postfix + " = " + value;
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    // غالباً tokens صحيحة، وأحياناً token غلط أو مسافات زيادة
+    private static String randomInfix(Random random) {
+        StringBuilder infix = new StringBuilder();
+        int length = random.nextInt(16);
+        for (int k = 0; k < length; k++) {
+            infix.append(random.nextInt(50) == 0 ? "x" : TOKENS[random.nextInt(TOKENS.length)]);
+            infix.append(random.nextInt(20) == 0 ? "  \t" : " ");
+        }
+        return infix.toString();
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// تعديلات عشوائية على النص: بعد كل edit، الـ output والنص المعروض (بعد تطبيق Display) لازم
+// يساووا infixToPostfix للنص كله في الـ Converter الأصلي، والنتيجة نفس tryEvaluateInfix
+public class LiveConverterTest {
+    private static final int ITERATIONS = Integer.getInteger("fuzz.iterations", 30_000);
+    private static final String TYPED = "0123456789+-*/^() .x\n1 2 3 + - ( ) ";
+    private static final String CUSTOM_TYPED = "ab+*^() x";
+
+    private static final String[] CUSTOM_OPERANDS = {"a", "b", "x"};
+    private static final String[] CUSTOM_OPERATORS = {"+", "*", "^"};
+    private static final int[] CUSTOM_PRIORITIES = {1, 2, 3};
+
+    @Test
+    void randomEditsMatchFullConversion() {
+        Random random = new Random(25);
+        for (int round = 0; round * 300 < ITERATIONS; round++) {
+            boolean custom = round % 5 == 4;
+            ConverterConfig config = custom
+                    ? ConverterConfig.custom(CUSTOM_OPERANDS, CUSTOM_OPERATORS, CUSTOM_PRIORITIES)
+                    : ConverterConfig.conventional();
+            Checker checker = new Checker(config, custom);
+            LiveConverter live = new LiveConverter(config);
+            // أحياناً نص طويل، عشان التعديل يوقف على checkpoint وينلصق الباقي
+            StringBuilder text = new StringBuilder(expression(random, random.nextInt(3) == 0 ? 2000 : 30, custom));
+            StringBuilder shown = new StringBuilder(live.reset(text.toString()));
+            checker.check(live, text.toString(), shown);
+            for (int e = 0; e < 300; e++) {
+                int start = random.nextInt(text.length() + 1);
+                int oldEnd = Math.min(text.length(), start + (random.nextInt(4) == 0 ? random.nextInt(20) : random.nextInt(3)));
+                String inserted = random.nextInt(3) == 0 ? ""
+                        : random.nextInt(4) == 0 ? expression(random, 5, custom) : typed(random, 1 + random.nextInt(3), custom);
+                // لصق نص جديد فوق كل شي
+                if (random.nextInt(20) == 0) {
+                    start = 0;
+                    oldEnd = text.length();
+                    inserted = expression(random, 40, custom);
+                }
+                text.replace(start, oldEnd, inserted);
+                live.edit(text.toString(), start, oldEnd, start + inserted.length(), shown::replace);
+                checker.check(live, text.toString(), shown);
+            }
+        }
+    }
+
+    // عدة تعديلات قبل ما يشتغل الـ debounce تندمج بمدى واحد (مثل Main.recordEdit)
+    @Test
+    void mergedEditsMatchFullConversion() {
+        Random random = new Random(250);
+        Checker checker = new Checker(ConverterConfig.conventional(), false);
+        for (int round = 0; round * 5 < ITERATIONS; round++) {
+            StringBuilder text = new StringBuilder(expression(random, 20, false));
+            LiveConverter live = new LiveConverter(ConverterConfig.conventional());
+            StringBuilder shown = new StringBuilder(live.reset(text.toString()));
+            for (int batch = 0; batch < 5; batch++) {
+                Edit edit = new Edit();
+                int edits = 1 + random.nextInt(4);
+                for (int k = 0; k < edits; k++) {
+                    int start = random.nextInt(text.length() + 1);
+                    int end = Math.min(text.length(), start + random.nextInt(4));
+                    String inserted = typed(random, random.nextInt(3), false);
+                    edit.record(start, end, inserted.length());
+                    text.replace(start, end, inserted);
+                }
+                live.edit(text.toString(), edit.start, edit.oldEnd, edit.newEnd, shown::replace);
+                checker.check(live, text.toString(), shown);
+            }
+        }
+    }
+
+    private static final class Checker {
+        final Converter converter;
+        final ReferenceConverter reference;
+        final boolean custom;
+
+        Checker(ConverterConfig config, boolean custom) {
+            this.converter = new Converter(config);
+            this.reference = custom
+                    ? new ReferenceConverter(CUSTOM_OPERANDS, CUSTOM_OPERATORS, CUSTOM_PRIORITIES)
+                    : new ReferenceConverter();
+            this.custom = custom;
+        }
+
+        void check(LiveConverter live, String text, StringBuilder shown) {
+            assertEquals(live.output(), shown.toString(), () -> "display [" + text + "]");
+            String expected;
+            try {
+                expected = reference.infixToPostfix(text);
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+            ConversionResult result = live.result();
+            if (expected != null) assertEquals(expected, live.output(), () -> "output [" + text + "]");
+            if (custom) {
+                ConversionResult full = converter.tryConvert("infix-postfix", text);
+                assertEquals(expected == null, result != null, () -> "result [" + text + "]");
+                if (result != null) assertResult(full, result, text);
+            } else {
+                assertResult(converter.tryEvaluateInfix(text), result, text);
+            }
+        }
+
+        private static void assertResult(ConversionResult expected, ConversionResult actual, String text) {
+            assertEquals(expected.toString(), actual.toString(), () -> "result [" + text + "]");
+            assertEquals(expected.errorCode(), actual.errorCode(), () -> "code [" + text + "]");
+            assertEquals(expected.offset(), actual.offset(), () -> "offset [" + text + "]");
+        }
+    }
+
+    // نفس دمج Main.recordEdit
+    private static final class Edit {
+        int start = -1;
+        int oldEnd;
+        int newEnd;
+
+        void record(int from, int to, int inserted) {
+            if (start < 0) {
+                start = from;
+                oldEnd = to;
+                newEnd = to;
+            }
+            if (to > newEnd) oldEnd += to - newEnd;
+            newEnd = Math.max(newEnd, to) + inserted - (to - from);
+            start = Math.min(start, from);
+        }
+    }
+
+    private static String typed(Random random, int length, boolean custom) {
+        String alphabet = custom ? CUSTOM_TYPED : TYPED;
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < length; i++) out.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return out.toString();
+    }
+
+    // tokens بمسافات، غالباً متوازنة بس مش دايماً صحيحة
+    private static String expression(Random random, int tokens, boolean custom) {
+        String[] operators = custom ? CUSTOM_OPERATORS : new String[]{"+", "-", "*", "/", "^"};
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 2) out.append("( ");
+            else if (kind < 3) out.append(") ");
+            else if (kind < 7) out.append(custom ? (random.nextBoolean() ? "a" : "b") : String.valueOf(random.nextInt(5))).append(' ');
+            else out.append(operators[random.nextInt(operators.length)]).append(' ');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+// الـ Converter الأصلي (قبل كل التحسينات) كمرجع للـ tests: نفس الخوارزميات بـ strings و
+// stacks بسيطة، بس الـ tokens تنفصل بأي whitespace والأرقام بنفس قواعد Tokenizer
+final class ReferenceConverter {
+    private static final Pattern NUMBER =
+            Pattern.compile("[+-]?(NaN|Infinity|(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?)");
+
+    private final boolean custom;
+    private final String[] operands;
+    private final String[] operators;
+    private final int[] priorities;
+
+    ReferenceConverter() {
+        this(false, new String[0], new String[]{"+", "-", "*", "/", "^"}, new int[]{1, 1, 2, 2, 3});
+    }
+
+    ReferenceConverter(String[] operands, String[] operators, int[] priorities) {
+        this(true, operands, operators, priorities);
+    }
+
+    private ReferenceConverter(boolean custom, String[] operands, String[] operators, int[] priorities) {
+        this.custom = custom;
+        this.operands = operands;
+        this.operators = operators;
+        this.priorities = priorities;
+    }
+
+    String convert(String type, String input) {
+        switch (type) {
+            case "infix-postfix": return infixToPostfix(input);
+            case "infix-prefix": return infixToPrefix(input);
+            case "postfix-infix": return postfixToInfix(input);
+            case "postfix-prefix": return infixToPrefix(postfixToInfix(input));
+            case "prefix-infix": return prefixToInfix(input);
+            case "prefix-postfix": return infixToPostfix(prefixToInfix(input));
+            default: throw new IllegalArgumentException(type);
+        }
+    }
+
+    String infixToPostfix(String infix) {
+        Deque<String> stack = new ArrayDeque<>();
+        StringBuilder result = new StringBuilder();
+        for (String token : tokens(infix)) {
+            if (isOperand(token)) {
+                result.append(token).append(' ');
+            } else if (token.equals("(")) {
+                stack.push(token);
+            } else if (token.equals(")")) {
+                while (!stack.isEmpty() && !stack.peek().equals("(")) result.append(stack.pop()).append(' ');
+                if (!stack.isEmpty()) stack.pop();
+            } else if (isOperator(token)) {
+                while (!stack.isEmpty() && !stack.peek().equals("(")
+                        && priority(stack.peek()) >= priority(token)) {
+                    result.append(stack.pop()).append(' ');
+                }
+                stack.push(token);
+            } else {
+                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+            }
+        }
+        while (!stack.isEmpty()) result.append(stack.pop()).append(' ');
+        return result.toString().trim();
+    }
+
+    String infixToPrefix(String infix) {
+        String[] tokens = tokens(infix);
+        StringBuilder reversed = new StringBuilder();
+        for (int i = tokens.length - 1; i >= 0; i--) {
+            String token = tokens[i];
+            reversed.append(token.equals("(") ? ")" : token.equals(")") ? "(" : token).append(' ');
+        }
+        return reverse(infixToPostfix(reversed.toString()));
+    }
+
+    String postfixToInfix(String postfix) {
+        Deque<String> stack = new ArrayDeque<>();
+        for (String token : tokens(postfix)) {
+            if (isOperand(token)) {
+                stack.push(token);
+            } else if (isOperator(token)) {
+                if (stack.size() < 2) throw new IllegalArgumentException("Invalid postfix expression");
+                String op2 = stack.pop();
+                String op1 = stack.pop();
+                stack.push("( " + op1 + " " + token + " " + op2 + " )");
+            } else {
+                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+            }
+        }
+        if (stack.size() != 1) throw new IllegalArgumentException("Invalid postfix expression");
+        return stack.pop();
+    }
+
+    String prefixToInfix(String prefix) {
+        Deque<String> stack = new ArrayDeque<>();
+        String[] tokens = tokens(prefix);
+        for (int i = tokens.length - 1; i >= 0; i--) {
+            String token = tokens[i];
+            if (isOperand(token)) {
+                stack.push(token);
+            } else if (isOperator(token)) {
+                if (stack.size() < 2) throw new IllegalArgumentException("Invalid prefix expression");
+                String op1 = stack.pop();
+                String op2 = stack.pop();
+                stack.push("( " + op1 + " " + token + " " + op2 + " )");
+            } else {
+                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+            }
+        }
+        if (stack.size() != 1) throw new IllegalArgumentException("Invalid prefix expression");
+        return stack.pop();
+    }
+
+    double evaluatePostfix(String postfix) {
+        if (custom) throw new UnsupportedOperationException("Evaluation not supported in custom mode");
+        Deque<Double> stack = new ArrayDeque<>();
+        for (String token : tokens(postfix)) {
+            if (NUMBER.matcher(token).matches()) {
+                stack.push(Double.parseDouble(token));
+            } else if (isOperator(token)) {
+                if (stack.size() < 2) throw new IllegalArgumentException("Invalid postfix expression");
+                double op2 = stack.pop();
+                double op1 = stack.pop();
+                stack.push(calculate(token, op1, op2));
+            } else {
+                throw new IllegalArgumentException("Invalid token: '" + token + "'");
+            }
+        }
+        if (stack.size() != 1) throw new IllegalArgumentException("Invalid postfix expression");
+        return stack.pop();
+    }
+
+    private static double calculate(String op, double a, double b) {
+        switch (op) {
+            case "+": return a + b;
+            case "-": return a - b;
+            case "*": return a * b;
+            case "/":
+                if (b == 0) throw new ArithmeticException("Division by zero");
+                return a / b;
+            default: return Math.pow(a, b);
+        }
+    }
+
+    private boolean isOperand(String token) {
+        if (!custom) return NUMBER.matcher(token).matches();
+        for (String operand : operands) {
+            if (operand.equals(token)) return true;
+        }
+        return false;
+    }
+
+    private boolean isOperator(String token) {
+        return priority(token) > 0;
+    }
+
+    private int priority(String token) {
+        for (int i = 0; i < operators.length; i++) {
+            if (operators[i].equals(token)) return priorities[i];
+        }
+        return 0;
+    }
+
+    private static String[] tokens(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    private static String reverse(String expression) {
+        String[] tokens = tokens(expression);
+        StringBuilder out = new StringBuilder();
+        for (int i = tokens.length - 1; i >= 0; i--) out.append(tokens[i]).append(' ');
+        return out.toString().trim();
+    }
+}